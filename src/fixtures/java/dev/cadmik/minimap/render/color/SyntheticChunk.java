@@ -0,0 +1,196 @@
+package dev.cadmik.minimap.render.color;
+
+import java.util.Arrays;
+
+/**
+ * A builder of synthetic chunk snapshots, for testing and benchmarking
+ * without a running game.
+ *
+ * <p> Block state IDs follow the vanilla {@code id << 4 | meta} layout, and
+ * are resolved by {@link #PALETTE} instead of the block registry.
+ */
+final class SyntheticChunk {
+    static final int AIR = 0;
+    static final int STONE = 1 << 4;
+    static final int GRASS = 2 << 4;
+    static final int DIRT = 3 << 4;
+    static final int WATER = 9 << 4;
+    static final int SAND = 12 << 4;
+
+    static final int GRASS_COLOR = 1;
+    static final int SAND_COLOR = 2;
+    static final int DIRT_COLOR = 10;
+    static final int STONE_COLOR = 11;
+    static final int WATER_COLOR = 12;
+
+    /**
+     * A palette of the synthetic blocks, with their vanilla map colors.
+     */
+    static final StatePalette PALETTE = new StatePalette() {
+        @Override
+        public int getColorIndex(int stateId) {
+            switch (stateId) {
+                case GRASS:
+                    return GRASS_COLOR;
+                case SAND:
+                    return SAND_COLOR;
+                case DIRT:
+                    return DIRT_COLOR;
+                case STONE:
+                    return STONE_COLOR;
+                case WATER:
+                    return WATER_COLOR;
+                default:
+                    return 0;
+            }
+        }
+
+        @Override
+        public boolean isSolid(int stateId) {
+            return stateId != AIR && stateId != WATER;
+        }
+    };
+
+    private final char[][] sections = new char[16][];
+
+    /**
+     * Heightmap values overriding the computed ones, {@code -1} where not
+     * overridden.
+     */
+    private final int[] heights = new int[256];
+
+    private char[][] northEdge;
+    private int[] northHeightMap;
+
+    SyntheticChunk() {
+        Arrays.fill(this.heights, -1);
+    }
+
+    /**
+     * Sets the block state at the specified block coordinates.
+     */
+    SyntheticChunk set(int x, int y, int z, int stateId) {
+        if (this.sections[y >> 4] == null) {
+            this.sections[y >> 4] = new char[4096];
+        }
+
+        this.sections[y >> 4][(y & 15) << 8 | z << 4 | x] = (char) stateId;
+        return this;
+    }
+
+    /**
+     * Returns the block state at the specified block coordinates.
+     */
+    int get(int x, int y, int z) {
+        char[] section = this.sections[y >> 4];
+        return section == null ? AIR : section[(y & 15) << 8 | z << 4 | x];
+    }
+
+    /**
+     * Fills the specified column from {@code minY} to {@code maxY}
+     * (inclusive).
+     */
+    SyntheticChunk column(int x, int z, int minY, int maxY, int stateId) {
+        for (int y = minY; y <= maxY; y++) {
+            this.set(x, y, z, stateId);
+        }
+
+        return this;
+    }
+
+    /**
+     * Fills every column from {@code minY} to {@code maxY} (inclusive).
+     */
+    SyntheticChunk layer(int minY, int maxY, int stateId) {
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                this.column(x, z, minY, maxY, stateId);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Overrides the heightmap value of the specified column, which otherwise
+     * lies just above its topmost non-air block.
+     */
+    SyntheticChunk height(int x, int z, int height) {
+        this.heights[z << 4 | x] = height;
+        return this;
+    }
+
+    /**
+     * Gives the chunk a north neighbour whose southern edge is a solid wall
+     * of the specified block, up to the specified Y coordinate.
+     */
+    SyntheticChunk northEdge(int maxY, int stateId) {
+        SyntheticChunk north = new SyntheticChunk();
+        for (int x = 0; x < 16; x++) {
+            north.column(x, 15, 0, maxY, stateId);
+        }
+
+        return this.north(north);
+    }
+
+    /**
+     * Gives the chunk the specified north neighbour, whose southern edge is
+     * included in the snapshot.
+     */
+    SyntheticChunk north(SyntheticChunk north) {
+        int[] heightMap = north.computeHeightMap();
+
+        this.northEdge = new char[16][];
+        this.northHeightMap = Arrays.copyOfRange(heightMap, 15 << 4, 16 << 4);
+
+        for (int i = 0; i < 16; i++) {
+            if (north.sections[i] == null) {
+                continue;
+            }
+
+            this.northEdge[i] = new char[256];
+            for (int y = 0; y < 16; y++) {
+                System.arraycopy(north.sections[i], y << 8 | 15 << 4, this.northEdge[i], y << 4, 16);
+            }
+        }
+
+        return this;
+    }
+
+    ChunkSnapshot build() {
+        return new ChunkSnapshot(0, 0, this.sections, this.computeHeightMap(), this.northEdge, this.northHeightMap);
+    }
+
+    /**
+     * Builds a snapshot without a heightmap, so scans start at the topmost
+     * non-empty section.
+     */
+    ChunkSnapshot buildWithoutHeightMap() {
+        return new ChunkSnapshot(0, 0, this.sections, null, this.northEdge, this.northHeightMap);
+    }
+
+    /**
+     * Computes the height above the topmost non-air block of each column,
+     * which matches the vanilla heightmap for the synthetic blocks, unless
+     * overridden.
+     */
+    private int[] computeHeightMap() {
+        int[] heightMap = new int[256];
+
+        for (int column = 0; column < 256; column++) {
+            if (this.heights[column] >= 0) {
+                heightMap[column] = this.heights[column];
+                continue;
+            }
+
+            int y = 255;
+            while (y >= 0 && this.get(column & 15, y, column >> 4) == AIR) {
+                y--;
+            }
+
+            heightMap[column] = y + 1;
+        }
+
+        return heightMap;
+    }
+}
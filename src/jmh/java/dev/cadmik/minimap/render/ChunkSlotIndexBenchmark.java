@@ -0,0 +1,65 @@
+package dev.cadmik.minimap.render;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures chunk tile lookups, as performed by
+ * {@code ChunkAtlas::searchChunkAtlas}, in a fully bound window.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkSlotIndexBenchmark {
+    @Param({"5", "16", "32"})
+    public int radius;
+
+    private ChunkSlotIndex index;
+    private int span;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        this.span = this.radius * 2;
+        this.index = new ChunkSlotIndex(this.span * this.span);
+
+        for (int z = -this.radius; z < this.radius; z++) {
+            for (int x = -this.radius; x < this.radius; x++) {
+                this.index.reserve(x, z);
+            }
+        }
+    }
+
+    /**
+     * Looks up a bound chunk, cycling through the whole window.
+     */
+    @Benchmark
+    public int searchHit() {
+        int i = this.cursor++ % (this.span * this.span);
+        return this.index.get(i % this.span - this.radius, i / this.span - this.radius);
+    }
+
+    /**
+     * Looks up a chunk just outside of the window, as done for the neighbours
+     * of edge tiles.
+     */
+    @Benchmark
+    public int searchMiss() {
+        int i = this.cursor++ % this.span;
+        return this.index.get(i - this.radius, this.radius);
+    }
+}
@@ -0,0 +1,94 @@
+package dev.cadmik.minimap.render;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the window sweeps of {@code ChunkAtlas::loadChunks}, binding and
+ * unbinding chunks in a slot index the same way the atlas does. Colorization
+ * and uploads are left out, as they're measured separately or need a GL
+ * context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkWindowBenchmark {
+    @Param({"5", "16", "32"})
+    public int radius;
+
+    private ChunkWindow window;
+    private ChunkSlotIndex index;
+    private ChunkWindow.Listener listener;
+
+    private int centerX;
+
+    @Setup
+    public void setup() {
+        int span = this.radius * 2;
+
+        this.window = new ChunkWindow(this.radius);
+        this.index = new ChunkSlotIndex(span * span);
+        this.listener = new ChunkWindow.Listener() {
+            @Override
+            public void chunkEntered(int x, int z) {
+                ChunkWindowBenchmark.this.index.reserve(x, z);
+            }
+
+            @Override
+            public void chunkLeft(int x, int z) {
+                ChunkWindowBenchmark.this.index.release(x, z);
+            }
+        };
+
+        this.window.moveTo(0, 0, this.listener);
+    }
+
+    /**
+     * Moves the window by one chunk, as when walking across a chunk border.
+     */
+    @Benchmark
+    public boolean walk() {
+        return this.window.moveTo(++this.centerX, 0, this.listener);
+    }
+
+    /**
+     * Moves the window by one chunk along both axes.
+     */
+    @Benchmark
+    public boolean walkDiagonally() {
+        ++this.centerX;
+        return this.window.moveTo(this.centerX, this.centerX, this.listener);
+    }
+
+    /**
+     * Moves the window out of its own span, as when teleporting, which
+     * rebinds every chunk.
+     */
+    @Benchmark
+    public boolean teleport() {
+        this.centerX += this.radius * 2;
+        return this.window.moveTo(this.centerX, 0, this.listener);
+    }
+
+    /**
+     * Keeps the window in place, which is the common case every frame.
+     */
+    @Benchmark
+    public boolean stay() {
+        return this.window.moveTo(this.centerX, 0, this.listener);
+    }
+}
@@ -0,0 +1,70 @@
+package dev.cadmik.minimap.render.color;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the colorization of a whole chunk, and the column scans it
+ * consists of, across different kinds of terrain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkColorizerBenchmark {
+    @Param({"flat", "mountain", "ocean", "caves"})
+    public String terrain;
+
+    private ChunkSnapshot snapshot;
+    private ChunkColorizer colorizer;
+    private ColumnScanner scanner;
+
+    private final int[] pixels = new int[256];
+    private final int[] scans = new int[256];
+    private final int[] northHeights = new int[16];
+
+    @Setup
+    public void setup() {
+        this.snapshot = ChunkFixtures.create(this.terrain);
+        this.colorizer = new ChunkColorizer(ChunkFixtures.PALETTE);
+        this.scanner = new ColumnScanner(ChunkFixtures.PALETTE);
+    }
+
+    /**
+     * Scans and colors all columns of the chunk, including the north edge.
+     */
+    @Benchmark
+    public int[] colorize() {
+        this.colorizer.colorize(this.snapshot, this.pixels, this.scans, this.northHeights);
+        return this.pixels;
+    }
+
+    /**
+     * Scans all columns of the chunk for their topmost colored block.
+     */
+    @Benchmark
+    public int scanColumns() {
+        int acc = 0;
+
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                acc += this.scanner.scan(this.snapshot, x, z);
+            }
+        }
+
+        return acc;
+    }
+}
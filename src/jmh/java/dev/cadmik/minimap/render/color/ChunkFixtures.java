@@ -0,0 +1,108 @@
+package dev.cadmik.minimap.render.color;
+
+import java.util.Random;
+
+import static dev.cadmik.minimap.render.color.SyntheticChunk.AIR;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.DIRT;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.GRASS;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.SAND;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.STONE;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.WATER;
+
+/**
+ * Synthetic chunk snapshots of typical terrain, for benchmarking without a
+ * running game.
+ *
+ * <p> Built with the same SyntheticChunk builder as the unit tests, so
+ * block state IDs are resolved by its fixed palette instead of the block
+ * registry.
+ */
+final class ChunkFixtures {
+    /**
+     * The palette of the fixture blocks.
+     */
+    static final StatePalette PALETTE = SyntheticChunk.PALETTE;
+
+    private ChunkFixtures() {
+    }
+
+    /**
+     * Creates a snapshot of the specified terrain type, with the north edge
+     * taken from a chunk of the same terrain.
+     *
+     * @param terrain One of {@code flat}, {@code mountain}, {@code ocean} or
+     *                {@code caves}.
+     * @return Snapshot of generated terrain.
+     */
+    static ChunkSnapshot create(String terrain) {
+        Random rand = new Random(terrain.hashCode());
+
+        SyntheticChunk chunk = generate(terrain, rand);
+        SyntheticChunk north = generate(terrain, rand);
+
+        return chunk.north(north).build();
+    }
+
+    private static SyntheticChunk generate(String terrain, Random rand) {
+        SyntheticChunk chunk = new SyntheticChunk();
+
+        switch (terrain) {
+            case "flat":
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        chunk.column(x, z, 0, 59, STONE);
+                        chunk.column(x, z, 60, 62, DIRT);
+                        chunk.set(x, 63, z, GRASS);
+                    }
+                }
+                break;
+
+            case "mountain":
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        int top = 64 + (int) (60 * Math.abs(Math.sin(x * 0.4) * Math.cos(z * 0.3)))
+                                + rand.nextInt(8);
+
+                        chunk.column(x, z, 0, top - 1, STONE);
+                        chunk.set(x, top, z, top > 150 ? STONE : GRASS);
+                    }
+                }
+                break;
+
+            case "ocean":
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        int floor = 36 + rand.nextInt(10);
+
+                        chunk.column(x, z, 0, floor - 3, STONE);
+                        chunk.column(x, z, floor - 2, floor, SAND);
+                        chunk.column(x, z, floor + 1, 62, WATER);
+                    }
+                }
+                break;
+
+            case "caves":
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        chunk.column(x, z, 0, 70, STONE);
+                        chunk.set(x, 71, z, GRASS);
+
+                        // Carve out most of the underground, along with the
+                        // occasional hole through the surface.
+                        int roof = rand.nextInt(8) == 0 ? 71 : 66;
+                        for (int y = 5; y <= roof; y++) {
+                            if (rand.nextInt(10) < 6) {
+                                chunk.set(x, y, z, AIR);
+                            }
+                        }
+                    }
+                }
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown terrain: " + terrain);
+        }
+
+        return chunk;
+    }
+}
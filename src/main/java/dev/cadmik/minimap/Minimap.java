@@ -3,9 +3,15 @@ package dev.cadmik.minimap;
 import dev.cadmik.minimap.event.StateEvents;
 import dev.cadmik.minimap.render.ChunkAtlas;
 import dev.cadmik.minimap.render.MapRenderer;
+import dev.cadmik.minimap.render.color.RegistryPalette;
+import dev.cadmik.minimap.stats.Stats;
+import dev.cadmik.minimap.stats.StatsDumper;
+import dev.cadmik.minimap.stats.StatsOverlay;
+import net.minecraft.client.Minecraft;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLModIdMappingEvent;
 
 /**
  * My minimap challenge submission. Hope you enjoy!
@@ -25,10 +31,24 @@ import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 public class Minimap {
     @Mod.EventHandler
     public void init(FMLInitializationEvent e) {
-        // Limit the rendering distance to 5 chunks.
+        // Limit the rendering distance to 5 chunks. From there on, the
+        // renderer sizes the atlas to the minimap's viewing distance, capped
+        // by the game's render distance.
         ChunkAtlas.init(5);
 
         MinecraftForge.EVENT_BUS.register(StateEvents.getInstance());
         MinecraftForge.EVENT_BUS.register(MapRenderer.getInstance());
+
+        // Instrumentation is off unless -Dminimap.stats=true.
+        if (Stats.ENABLED) {
+            MinecraftForge.EVENT_BUS.register(StatsOverlay.getInstance());
+            StatsDumper.start(Minecraft.getMinecraft().mcDataDir);
+        }
+    }
+
+    @Mod.EventHandler
+    public void remap(FMLModIdMappingEvent e) {
+        // Block state IDs may have changed, e.g. when joining a server.
+        RegistryPalette.getInstance().rebuild();
     }
 }
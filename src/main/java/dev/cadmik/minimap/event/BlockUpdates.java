@@ -1,85 +1,108 @@
 package dev.cadmik.minimap.event;
 
+import dev.cadmik.minimap.event.packet.PacketWrapperS21;
 import dev.cadmik.minimap.event.packet.PacketWrapperS22;
 import dev.cadmik.minimap.event.packet.PacketWrapperS23;
+import dev.cadmik.minimap.event.packet.PacketWrapperS26;
 import dev.cadmik.minimap.event.packet.PacketWrapperS27;
-import dev.cadmik.minimap.render.ChunkAtlas;
-import gnu.trove.set.hash.THashSet;
+import dev.cadmik.minimap.stats.Stats;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
-import net.minecraft.client.Minecraft;
 import net.minecraft.network.Packet;
 import net.minecraft.network.play.INetHandlerPlayClient;
+import net.minecraft.network.play.server.S21PacketChunkData;
 import net.minecraft.network.play.server.S22PacketMultiBlockChange;
 import net.minecraft.network.play.server.S23PacketBlockChange;
+import net.minecraft.network.play.server.S26PacketMapChunkBulk;
 import net.minecraft.network.play.server.S27PacketExplosion;
 import net.minecraft.util.BlockPos;
-import net.minecraft.world.ChunkCoordIntPair;
-
-import java.util.Collections;
-import java.util.Set;
 
 /**
- * A Netty inbound channel handler for all block-related update packets.
+ * A Netty inbound channel handler for all block-related update packets,
+ * including chunk data.
+ *
+ * <p> Updates are only marked in the {@code DirtyChunkSet}, which binds or
+ * recolors everything they touched once per frame.
  */
 public class BlockUpdates extends SimpleChannelInboundHandler<Packet> {
+    /*
+     * The client packet handler reschedules each of these packets onto the
+     * client thread, and only applies the update once it gets there. Our
+     * overrides run after the update is applied, so anything they mark
+     * is guaranteed to be recolored *after* the block changes in-game.
+     */
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Packet msg) {
         if (msg instanceof S23PacketBlockChange) {
+            Stats.PACKETS.increment();
             msg = new PacketWrapperS23((S23PacketBlockChange) msg) {
                 @Override
                 public void processPacket(INetHandlerPlayClient handler) {
                     super.processPacket(handler);
 
                     BlockPos pos = this.getBlockPosition();
-                    Set<ChunkCoordIntPair> single = Collections.singleton(
-                            new ChunkCoordIntPair(pos.getX() >> 4, pos.getZ() >> 4)
-                    );
-
-                    refreshChunk(single);
+                    DirtyChunkSet.getInstance().markColumn(pos.getX(), pos.getZ());
                 }
             };
         } else if (msg instanceof S22PacketMultiBlockChange) {
+            Stats.PACKETS.increment();
             msg = new PacketWrapperS22((S22PacketMultiBlockChange) msg) {
                 @Override
                 public void processPacket(INetHandlerPlayClient handler) {
                     super.processPacket(handler);
 
-                    BlockPos pos = this.getChangedBlocks()[0].getPos();
-                    Set<ChunkCoordIntPair> single = Collections.singleton(
-                            new ChunkCoordIntPair(pos.getX() >> 4, pos.getZ() >> 4)
-                    );
+                    DirtyChunkSet dirty = DirtyChunkSet.getInstance();
+                    for (S22PacketMultiBlockChange.BlockUpdateData data : this.getChangedBlocks()) {
+                        BlockPos pos = data.getPos();
+                        dirty.markColumn(pos.getX(), pos.getZ());
+                    }
+                }
+            };
+        } else if (msg instanceof S21PacketChunkData) {
+            Stats.PACKETS.increment();
+            msg = new PacketWrapperS21((S21PacketChunkData) msg) {
+                @Override
+                public void processPacket(INetHandlerPlayClient handler) {
+                    super.processPacket(handler);
+
+                    // Full chunks without any sections are unloads. Keep the
+                    // tile as the last known state of the chunk.
+                    if (this.func_149274_i() && this.getExtractedSize() == 0) {
+                        return;
+                    }
 
-                    refreshChunk(single);
+                    DirtyChunkSet.getInstance().markChunk(this.getChunkX(), this.getChunkZ());
+                }
+            };
+        } else if (msg instanceof S26PacketMapChunkBulk) {
+            Stats.PACKETS.increment();
+            msg = new PacketWrapperS26((S26PacketMapChunkBulk) msg) {
+                @Override
+                public void processPacket(INetHandlerPlayClient handler) {
+                    super.processPacket(handler);
+
+                    DirtyChunkSet dirty = DirtyChunkSet.getInstance();
+                    for (int i = 0; i < this.getChunkCount(); i++) {
+                        dirty.markChunk(this.getChunkX(i), this.getChunkZ(i));
+                    }
                 }
             };
         } else if (msg instanceof S27PacketExplosion) {
+            Stats.PACKETS.increment();
             msg = new PacketWrapperS27((S27PacketExplosion) msg) {
                 @Override
                 public void processPacket(INetHandlerPlayClient handler) {
                     super.processPacket(handler);
 
-                    Set<ChunkCoordIntPair> affectedChunks = new THashSet<>();
+                    DirtyChunkSet dirty = DirtyChunkSet.getInstance();
                     for (BlockPos pos : this.getAffectedBlockPositions()) {
-                        affectedChunks.add(new ChunkCoordIntPair(pos.getX() >> 4, pos.getZ() >> 4));
+                        dirty.markColumn(pos.getX(), pos.getZ());
                     }
-
-                    refreshChunk(affectedChunks);
                 }
             };
         }
 
         ctx.fireChannelRead(msg);
     }
-
-    private static void refreshChunk(Iterable<ChunkCoordIntPair> coords) {
-        // If called from Netty thread, ChunkAtlas::refreshChunk would run
-        // before the chunk is updated in-game. Scheduling guarantees that
-        // we'll run *after* any block updates.
-        Minecraft.getMinecraft().addScheduledTask(() -> {
-            for (ChunkCoordIntPair c : coords) {
-                ChunkAtlas.getInstance().refreshChunk(c.chunkXPos, c.chunkZPos);
-            }
-        });
-    }
 }
@@ -0,0 +1,191 @@
+package dev.cadmik.minimap.event;
+
+import dev.cadmik.minimap.render.ChunkAtlas;
+import dev.cadmik.minimap.stats.Stats;
+
+import java.util.Arrays;
+
+/**
+ * The singleton set of chunks and block columns awaiting recoloring.
+ *
+ * <p> Chunk data and block update packets mark what they touched, and the
+ * set is flushed into ChunkAtlas once per frame. However many updates hit
+ * the same chunk or column in between, it's only recolored once. Marked
+ * chunks that aren't bound yet get bound if they lie within the window.
+ */
+public final class DirtyChunkSet {
+    /**
+     * Column keys are ordered by chunk, so that sorting them groups each
+     * chunk's columns together. Chunk coordinates are biased to be unsigned.
+     */
+    private static final int CHUNK_BIAS = 1 << 21;
+    private static final long CHUNK_MASK = (1L << 22) - 1;
+
+    private static final DirtyChunkSet instance = new DirtyChunkSet();
+
+    /**
+     * Marked chunks and columns. Swapped with the drain sets on every flush,
+     * so that marking can continue while the previous batch is processed.
+     */
+    private LongHashSet chunks = new LongHashSet();
+    private LongHashSet columns = new LongHashSet();
+
+    private LongHashSet drainChunks = new LongHashSet();
+    private LongHashSet drainColumns = new LongHashSet();
+
+    /**
+     * Sorted column keys and column bitmask of the chunk being flushed.
+     */
+    private long[] sortedColumns = new long[64];
+    private final long[] columnMask = new long[4];
+
+    public static DirtyChunkSet getInstance() {
+        return instance;
+    }
+
+    private DirtyChunkSet() {
+    }
+
+    /**
+     * Marks the specified chunk for recoloring. Safe to call from any thread.
+     *
+     * @param x Chunk's X coordinate.
+     * @param z Chunk's Z coordinate.
+     */
+    public void markChunk(int x, int z) {
+        boolean added;
+        synchronized (this) {
+            added = this.chunks.add(pack(x, z));
+        }
+
+        if (!added) {
+            Stats.UPDATES_COALESCED.increment();
+        }
+    }
+
+    /**
+     * Marks the block column at the specified block coordinates for
+     * recoloring. Safe to call from any thread.
+     *
+     * @param blockX Column's X coordinate.
+     * @param blockZ Column's Z coordinate.
+     */
+    public void markColumn(int blockX, int blockZ) {
+        boolean added;
+        synchronized (this) {
+            added = this.columns.add(packColumn(blockX, blockZ));
+        }
+
+        if (!added) {
+            Stats.UPDATES_COALESCED.increment();
+        }
+    }
+
+    /**
+     * Discards all marked chunks and columns, e.g. when the world changes.
+     * Safe to call from any thread.
+     */
+    public synchronized void clear() {
+        this.chunks.clear();
+        this.columns.clear();
+    }
+
+    /**
+     * Recolors every marked chunk and column exactly once. Marked columns are
+     * recolored in one batch per chunk, and columns within marked chunks are
+     * skipped, since the whole chunk is recolored anyway. Must be called from
+     * the client thread.
+     */
+    public void flush() {
+        LongHashSet chunks, columns;
+
+        synchronized (this) {
+            if (this.chunks.size() == 0 && this.columns.size() == 0) {
+                return;
+            }
+
+            chunks = this.chunks;
+            columns = this.columns;
+
+            this.chunks = this.drainChunks;
+            this.columns = this.drainColumns;
+        }
+
+        ChunkAtlas atlas = ChunkAtlas.getInstance();
+
+        for (int i = 0; i < chunks.capacity(); i++) {
+            if (chunks.isUsed(i)) {
+                long key = chunks.keyAt(i);
+                atlas.refreshChunk(unpackX(key), unpackZ(key));
+            }
+        }
+
+        long processed = chunks.size();
+        long coalesced = 0;
+
+        int count = 0;
+        if (this.sortedColumns.length < columns.size()) {
+            this.sortedColumns = new long[columns.capacity()];
+        }
+
+        for (int i = 0; i < columns.capacity(); i++) {
+            if (columns.isUsed(i)) {
+                this.sortedColumns[count++] = columns.keyAt(i);
+            }
+        }
+
+        Arrays.sort(this.sortedColumns, 0, count);
+
+        for (int i = 0; i < count; ) {
+            long chunkKey = this.sortedColumns[i] >>> 8;
+            int chunkX = (int) (chunkKey >>> 22) - CHUNK_BIAS;
+            int chunkZ = (int) (chunkKey & CHUNK_MASK) - CHUNK_BIAS;
+
+            boolean skip = chunks.contains(pack(chunkX, chunkZ));
+            Arrays.fill(this.columnMask, 0);
+
+            for (; i < count && this.sortedColumns[i] >>> 8 == chunkKey; i++) {
+                int column = (int) this.sortedColumns[i] & 0xff;
+                this.columnMask[column >> 6] |= 1L << column;
+
+                if (skip) {
+                    coalesced++;
+                }
+            }
+
+            if (!skip) {
+                atlas.refreshColumns(chunkX, chunkZ, this.columnMask);
+                processed++;
+            }
+        }
+
+        chunks.clear();
+        columns.clear();
+
+        // Only ever flushed from the client thread, so no need to lock.
+        this.drainChunks = chunks;
+        this.drainColumns = columns;
+
+        Stats.UPDATES_PROCESSED.add(processed);
+        Stats.UPDATES_COALESCED.add(coalesced);
+    }
+
+    private static long pack(int x, int z) {
+        return (long) x << 32 | z & 0xffffffffL;
+    }
+
+    private static long packColumn(int blockX, int blockZ) {
+        long chunkX = (blockX >> 4) + CHUNK_BIAS & CHUNK_MASK;
+        long chunkZ = (blockZ >> 4) + CHUNK_BIAS & CHUNK_MASK;
+
+        return (chunkX << 22 | chunkZ) << 8 | (blockZ & 15) << 4 | blockX & 15;
+    }
+
+    private static int unpackX(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int unpackZ(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,106 @@
+package dev.cadmik.minimap.event;
+
+import java.util.Arrays;
+
+/**
+ * A minimal, growable open-addressing set of {@code long} keys. Not
+ * thread-safe.
+ */
+final class LongHashSet {
+    private long[] keys;
+    private boolean[] used;
+    private int size;
+
+    LongHashSet() {
+        this.keys = new long[64];
+        this.used = new boolean[64];
+    }
+
+    /**
+     * Adds the specified key to the set.
+     *
+     * @param key Key to add.
+     * @return {@code true} iff the key wasn't already present.
+     */
+    boolean add(long key) {
+        if (this.size >= this.keys.length >> 1) {
+            this.grow();
+        }
+
+        int mask = this.keys.length - 1;
+        int i = hash(key) & mask;
+
+        for (; this.used[i]; i = i + 1 & mask) {
+            if (this.keys[i] == key) {
+                return false;
+            }
+        }
+
+        this.keys[i] = key;
+        this.used[i] = true;
+        this.size++;
+
+        return true;
+    }
+
+    boolean contains(long key) {
+        int mask = this.keys.length - 1;
+
+        for (int i = hash(key) & mask; this.used[i]; i = i + 1 & mask) {
+            if (this.keys[i] == key) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the table capacity. Keys are stored at table indices for which
+     * {@code LongHashSet::isUsed} holds.
+     *
+     * @return Table capacity.
+     */
+    int capacity() {
+        return this.keys.length;
+    }
+
+    boolean isUsed(int index) {
+        return this.used[index];
+    }
+
+    long keyAt(int index) {
+        return this.keys[index];
+    }
+
+    void clear() {
+        if (this.size > 0) {
+            Arrays.fill(this.used, false);
+            this.size = 0;
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = this.keys;
+        boolean[] oldUsed = this.used;
+
+        this.keys = new long[oldKeys.length << 1];
+        this.used = new boolean[oldKeys.length << 1];
+        this.size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                this.add(oldKeys[i]);
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ h >>> 32);
+    }
+}
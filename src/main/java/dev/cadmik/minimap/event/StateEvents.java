@@ -1,6 +1,7 @@
 package dev.cadmik.minimap.event;
 
 import dev.cadmik.minimap.render.ChunkAtlas;
+import dev.cadmik.minimap.store.TileStore;
 import net.minecraft.client.Minecraft;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -34,9 +35,14 @@ public class StateEvents {
             return;
         }
 
-        Minecraft.getMinecraft().addScheduledTask(
-                () -> ChunkAtlas.getInstance().clear()
-        );
+        Minecraft.getMinecraft().addScheduledTask(() -> {
+            ChunkAtlas atlas = ChunkAtlas.getInstance();
+
+            // Marks of the previous world mean nothing in this one.
+            DirtyChunkSet.getInstance().clear();
+            atlas.clear();
+            atlas.setTileStore(TileStore.forWorld(e.world));
+        });
     }
 
     /**
@@ -0,0 +1,64 @@
+package dev.cadmik.minimap.event.packet;
+
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.network.play.INetHandlerPlayClient;
+import net.minecraft.network.play.server.S21PacketChunkData;
+
+import java.io.IOException;
+
+/**
+ * A wrapper for the client-bound chunk data packet.
+ */
+public abstract class PacketWrapperS21 extends S21PacketChunkData {
+    private final S21PacketChunkData packet;
+
+    public PacketWrapperS21(S21PacketChunkData packet) {
+        this.packet = packet;
+    }
+
+    @Override
+    public void readPacketData(PacketBuffer buf) throws IOException {
+        this.packet.readPacketData(buf);
+    }
+
+    @Override
+    public void writePacketData(PacketBuffer buf) throws IOException {
+        this.packet.writePacketData(buf);
+    }
+
+    /**
+     * Packet handling override to ensure the wrapper's code is called if it's
+     * rescheduled by the handler.
+     *
+     * @param handler Client packet handler.
+     */
+    @Override
+    public void processPacket(INetHandlerPlayClient handler) {
+        handler.handleChunkData(this);
+    }
+
+    @Override
+    public byte[] func_149272_d() {
+        return this.packet.func_149272_d();
+    }
+
+    @Override
+    public int getChunkX() {
+        return this.packet.getChunkX();
+    }
+
+    @Override
+    public int getChunkZ() {
+        return this.packet.getChunkZ();
+    }
+
+    @Override
+    public int getExtractedSize() {
+        return this.packet.getExtractedSize();
+    }
+
+    @Override
+    public boolean func_149274_i() {
+        return this.packet.func_149274_i();
+    }
+}
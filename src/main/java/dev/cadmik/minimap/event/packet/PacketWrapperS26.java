@@ -0,0 +1,64 @@
+package dev.cadmik.minimap.event.packet;
+
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.network.play.INetHandlerPlayClient;
+import net.minecraft.network.play.server.S26PacketMapChunkBulk;
+
+import java.io.IOException;
+
+/**
+ * A wrapper for the client-bound bulk chunk data packet.
+ */
+public abstract class PacketWrapperS26 extends S26PacketMapChunkBulk {
+    private final S26PacketMapChunkBulk packet;
+
+    public PacketWrapperS26(S26PacketMapChunkBulk packet) {
+        this.packet = packet;
+    }
+
+    @Override
+    public void readPacketData(PacketBuffer buf) throws IOException {
+        this.packet.readPacketData(buf);
+    }
+
+    @Override
+    public void writePacketData(PacketBuffer buf) throws IOException {
+        this.packet.writePacketData(buf);
+    }
+
+    /**
+     * Packet handling override to ensure the wrapper's code is called if it's
+     * rescheduled by the handler.
+     *
+     * @param handler Client packet handler.
+     */
+    @Override
+    public void processPacket(INetHandlerPlayClient handler) {
+        handler.handleMapChunkBulk(this);
+    }
+
+    @Override
+    public int getChunkX(int index) {
+        return this.packet.getChunkX(index);
+    }
+
+    @Override
+    public int getChunkZ(int index) {
+        return this.packet.getChunkZ(index);
+    }
+
+    @Override
+    public int getChunkCount() {
+        return this.packet.getChunkCount();
+    }
+
+    @Override
+    public byte[] getChunkBytes(int index) {
+        return this.packet.getChunkBytes(index);
+    }
+
+    @Override
+    public int getChunkSize(int index) {
+        return this.packet.getChunkSize(index);
+    }
+}
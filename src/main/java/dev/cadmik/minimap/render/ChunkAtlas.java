@@ -1,16 +1,21 @@
 package dev.cadmik.minimap.render;
 
-import net.minecraft.block.material.MapColor;
-import net.minecraft.block.state.IBlockState;
+import dev.cadmik.minimap.render.color.ChunkColorizer;
+import dev.cadmik.minimap.render.color.ChunkSnapshot;
+import dev.cadmik.minimap.render.color.ChunkSurface;
+import dev.cadmik.minimap.render.color.ColorizerBatch;
+import dev.cadmik.minimap.render.color.ColorizedTile;
+import dev.cadmik.minimap.render.color.ColorizerPool;
+import dev.cadmik.minimap.render.color.ColumnScanner;
+import dev.cadmik.minimap.render.color.RegistryPalette;
+import dev.cadmik.minimap.stats.Stats;
+import dev.cadmik.minimap.store.TileStore;
 import net.minecraft.client.Minecraft;
-import net.minecraft.client.renderer.GLAllocation;
-import net.minecraft.client.renderer.GlStateManager;
-import net.minecraft.util.BlockPos;
 import net.minecraft.world.ChunkCoordIntPair;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.ContextCapabilities;
+import org.lwjgl.opengl.GLContext;
 
 import java.awt.*;
 import java.lang.invoke.MethodHandle;
@@ -20,7 +25,6 @@ import java.nio.IntBuffer;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Iterator;
-import java.util.Objects;
 import java.util.stream.IntStream;
 
 /**
@@ -28,7 +32,7 @@ import java.util.stream.IntStream;
  *
  * <p> Use when rendering bound chunks.
  */
-public class ChunkAtlas implements Iterable<ChunkTile> {
+public class ChunkAtlas implements Iterable<ChunkTile>, TileLayer {
     /**
      * A direct method handle to {@code World::isChunkLoaded}.
      *
@@ -47,6 +51,45 @@ public class ChunkAtlas implements Iterable<ChunkTile> {
      */
     private static final MethodHandle m_isChunkLoaded;
 
+    /**
+     * The number of colorizer threads. One core is left for the client
+     * thread, and more than four would only contend for memory bandwidth.
+     */
+    private static final int COLORIZER_THREADS =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * The parallelism of bulk colorization, such as when joining a world.
+     * Bulk binds are rare and short, so they may use every core but the
+     * client thread's. Configurable with {@code -Dminimap.bulkThreads}.
+     */
+    private static final int BULK_COLORIZER_THREADS = Math.max(1, Integer.getInteger(
+            "minimap.bulkThreads", Runtime.getRuntime().availableProcessors() - 1
+    ));
+
+    /**
+     * The number of chunks beyond the rendering distance, on every side, the
+     * atlas has room for. Tiles leaving the window are retained in these
+     * spare slots, and only evicted once the slots are needed, least recently
+     * used first, so walking back and forth across a chunk border doesn't
+     * colorize or upload anything. Configurable with
+     * {@code -Dminimap.retentionMargin}.
+     */
+    private static final int RETENTION_MARGIN = Math.max(0, Integer.getInteger("minimap.retentionMargin", 2));
+
+    /**
+     * The maximum number of horizontally adjacent chunk tiles uploaded with a
+     * single {@code glTexSubImage2D} call.
+     */
+    private static final int UPLOAD_BATCH = 16;
+
+    /**
+     * The number of pixels per segment of the PBO upload ring. Large enough
+     * for a frame's worth of uploads, so segments are only reused frames
+     * later.
+     */
+    private static final int PBO_SEGMENT_SIZE = 256 * 256;
+
     private static ChunkAtlas instance;
 
     /**
@@ -54,34 +97,141 @@ public class ChunkAtlas implements Iterable<ChunkTile> {
      * atlas.
      */
     private final ChunkCoordIntPair[] chunkCoords;
-    private final BitSet reusableChunks;
 
     /**
-     * The chunk viewing radius.
+     * Coordinate-to-offset index of bound chunk tiles. Always kept in step
+     * with {@code ChunkAtlas::chunkCoords}.
      */
-    private final int radius;
+    private final ChunkSlotIndex slotIndex;
 
     /**
-     * The number of chunk tiles that can fit within the texture atlas,
-     * in log-base-2 representation.
-     *
-     * <p> The area of the texture atlas is a power-of-two, and so too will
-     * the atlas's width and height. Thus we can optimize any scaling by the
-     * atlas width into a shift.
+     * Colorization request stamps of each chunk tile. Incremented with every
+     * request, so that superseded tiles can be discarded on arrival.
+     */
+    private final int[] stamps;
+
+    /**
+     * Chunk tiles holding uploaded color data. A freshly bound tile still
+     * contains whatever chunk was bound before it, and mustn't be rendered.
+     */
+    private final BitSet readyChunks;
+
+    /**
+     * Ready chunk tiles outside the window, kept until their slots are
+     * needed.
+     */
+    private final RetainedSlots retainedChunks;
+
+    /**
+     * Request stamps of the most recently uploaded chunk tiles. A tile is
+     * settled once its uploaded stamp catches up with its request stamp.
+     */
+    private final int[] uploadedStamps;
+
+    /**
+     * Content hashes of the chunk data each tile was colorized from, or
+     * {@code 0} if unknown. A colorization request whose snapshot still
+     * matches is answered without recoloring or uploading anything.
+     */
+    private final long[] hashes;
+
+    /**
+     * Incremented whenever the set of occupied chunk tiles changes, so that
+     * any geometry built from them can be invalidated.
+     */
+    private int generation;
+
+    /**
+     * Incremented with every generation, and every upload to the texture
+     * atlas, so that anything rendered from it can be invalidated.
+     */
+    private int revision;
+
+    private final SurfaceCache surfaces;
+    private final ColorizerPool colorizers;
+
+    /**
+     * Chunk tiles awaiting upload, along with their colorized pixels, if
+     * still current. Tiles without pixels are colored from the surface cache.
+     */
+    private final UploadScheduler uploads;
+    private final int[][] stagedPixels;
+
+    /**
+     * Reusable buffers for a single frame's uploads.
+     */
+    private final int[] uploadSlots;
+    private final int[] uploadGroup = new int[UPLOAD_BATCH];
+    private final int[] tilePixels = new int[256];
+    private final TileRuns.TilePixels runPixels = this::takeStagedPixels;
+
+    /**
+     * The persistent tile store of the current world, if any, along with
+     * the reusable buffers tiles are read and written through.
+     */
+    private TileStore store;
+    private final int[] storedScans = new int[256];
+    private final int[] storedNorthHeights = new int[16];
+
+    /**
+     * Column scanner for block updates, along with its reusable section view.
+     * Only used from the client thread.
+     */
+    private final ColumnScanner scanner;
+    private final char[][] liveSections = new char[16][];
+    private final long[] columnMask = new long[4];
+
+    /**
+     * The window of chunks within rendering distance, centered on the chunk
+     * of the previous {@code ChunkAtlas::loadChunks} call.
+     */
+    private final ChunkWindow window;
+    private final ChunkWindow.Listener windowListener = new ChunkWindow.Listener() {
+        @Override
+        public void chunkEntered(int x, int z) {
+            ChunkAtlas.this.bindChunk(x, z);
+        }
+
+        @Override
+        public void chunkLeft(int x, int z) {
+            ChunkAtlas.this.retainChunk(x, z);
+        }
+    };
+
+    /**
+     * The colorization requests of chunks bound during the current window
+     * move, reused from one move to the next, and whether a move is under
+     * way.
+     */
+    private final ColorizerBatch batch = new ColorizerBatch();
+    private boolean batching;
+
+    /**
+     * The texture pages holding the chunk tiles.
+     */
+    private final TexturePages pages;
+
+    /**
+     * The downsampled levels above the chunk tiles, for zoomed-out maps.
+     * Only created while zoomed out, {@code null} otherwise.
+     */
+    private LodPyramid lod;
+
+    /**
+     * The number of chunk tiles the atlas has room for beyond the window.
      */
-    private final int chunkSpanL2;
+    private final int spareChunks;
 
     /**
-     * The normalized dimensions of a chunk in the texture atlas.
+     * The region super-tiles drawn in place of the chunk tiles, if enabled.
      */
-    private final double chunkWidth, chunkHeight;
+    private final RegionLayer regions;
 
     /**
-     * The chunk tile upload buffer. Used to transfer chunk color data to the
-     * OpenGL implementation.
+     * The upload backend. Used to transfer chunk color data to the OpenGL
+     * implementation.
      */
-    private final IntBuffer pixels;
-    private final int texture;
+    private final TileUploader uploader;
 
     /**
      * Initializes the ChunkAtlas singleton with the maximum chunk rendering
@@ -91,123 +241,252 @@ public class ChunkAtlas implements Iterable<ChunkTile> {
      */
     public static void init(int maxChunkRadius) {
         if (instance == null) {
-            instance = new ChunkAtlas(maxChunkRadius);
+            instance = new ChunkAtlas(maxChunkRadius, new ColorizerPool(
+                    new ChunkColorizer(RegistryPalette.getInstance()),
+                    COLORIZER_THREADS,
+                    BULK_COLORIZER_THREADS
+            ));
         }
     }
 
+    /**
+     * Replaces the ChunkAtlas singleton with one for the specified maximum
+     * chunk rendering distance. Must be called from the render thread.
+     *
+     * <p> Settled chunk tiles still within rendering distance are carried
+     * over to the new atlas, along with their surface caches. If supported,
+     * their texels are copied on the GPU, and otherwise they're uploaded
+     * again from the surface cache, nearest to the player first. Only chunks
+     * that weren't settled, or newly entered the rendering distance, are
+     * scanned again.
+     *
+     * @param maxChunkRadius Maximum chunk rendering distance.
+     */
+    public static void reconfigure(int maxChunkRadius) {
+        ChunkAtlas old = instance;
+        if (old == null) {
+            init(maxChunkRadius);
+            return;
+        }
+
+        ChunkAtlas atlas = new ChunkAtlas(maxChunkRadius, old.colorizers);
+        atlas.migrateFrom(old);
+        atlas.setLodLevels(old.getLodLevels());
+        old.delete();
+
+        instance = atlas;
+    }
+
     public static ChunkAtlas getInstance() {
         return instance;
     }
 
-    private ChunkAtlas(int maxChunkRadius) {
-        int maxChunks = maxChunkRadius * maxChunkRadius << 2;
-
-        /*
-         * Rounds texture area up to the next power-of-two.
-         * - Resolves visual artifacts from floating point imperfections.
-         *      - Might not be important in practice bc. of how small floats can be.
-         * - AFAIK, improves rendering performance.
-         *
-         * Also converts from chunk space to block space, hence the shift of 5
-         * instead of 1.
-         */
-        int texWidth = Integer.highestOneBit(maxChunks - 1) << 5;
-        int texHeight = 16;
-
-        { // For fault tolerance (see next comment)
-            int texLimit = Minecraft.getGLMaximumTextureSize();
-            while (texWidth > texLimit) {
-                texWidth >>= 1;
-                texHeight <<= 1;
-            }
-
-            while (texHeight > texLimit) {
-                texHeight >>= 1;
-            }
+    private ChunkAtlas(int maxChunkRadius, ColorizerPool colorizers) {
+        int slotRadius = maxChunkRadius + RETENTION_MARGIN;
+        int maxChunks = slotRadius * slotRadius << 2;
+        int spareChunks = maxChunks - (maxChunkRadius * maxChunkRadius << 2);
 
-            int chunkCapacity = texWidth * texHeight >> 8;
+        this.window = new ChunkWindow(maxChunkRadius);
 
-            if (maxChunks > chunkCapacity) {
-                maxChunks = chunkCapacity;
-            }
+        this.chunkCoords = new ChunkCoordIntPair[maxChunks];
+        this.slotIndex = new ChunkSlotIndex(maxChunks);
+        this.stamps = new int[maxChunks];
+        this.readyChunks = new BitSet(maxChunks);
+        this.retainedChunks = new RetainedSlots(maxChunks);
+        this.uploadedStamps = new int[maxChunks];
+        this.hashes = new long[maxChunks];
+        this.surfaces = new SurfaceCache(maxChunks);
+        this.uploads = new UploadScheduler(maxChunks);
+        this.stagedPixels = new int[maxChunks][];
+        this.uploadSlots = new int[maxChunks];
+
+        this.colorizers = colorizers;
+        this.scanner = new ColumnScanner(RegistryPalette.getInstance());
+
+        this.pages = new TexturePages(maxChunks);
+        this.spareChunks = spareChunks;
+
+        // Region super-tiles can be turned on with -Dminimap.regionTiles=true,
+        // which mostly pays off for wide rendering distances. Its regions
+        // only ever cover the window, as they're too large to retain.
+        this.regions = Boolean.getBoolean("minimap.regionTiles") ? new RegionLayer(maxChunkRadius) : null;
+
+        // The textures are only ever deleted when reconfiguring, as
+        // FMLModDisabledEvent was never properly hooked up.
+
+        // PBO streaming can be turned off with -Dminimap.disablePbo=true,
+        // in case of driver trouble.
+        if (PboTileUploader.isSupported() && !Boolean.getBoolean("minimap.disablePbo")) {
+            this.uploader = new PboTileUploader(PBO_SEGMENT_SIZE);
+        } else {
+            this.uploader = new DirectTileUploader(256 * UPLOAD_BATCH);
         }
+    }
+
+    /**
+     * Returns the chunk viewing radius, as provided to
+     * {@code ChunkAtlas::init()} or {@code ChunkAtlas::reconfigure()}.
+     *
+     * @return Chunk viewing radius.
+     */
+    public int getChunkRadius() {
+        return this.window.getRadius();
+    }
+
+    /**
+     * Returns the generation of the occupied chunk tiles. Changes whenever a
+     * tile is bound, unbound, retained, taken back, or uploaded for the first
+     * time.
+     *
+     * @return Generation of occupied chunk tiles.
+     */
+    @Override
+    public int getGeneration() {
+        return this.generation;
+    }
 
-        this.radius = (int) Math.sqrt(maxChunks >> 2);
-        this.chunkSpanL2 = Integer.numberOfTrailingZeros(texWidth >> 4);
+    /**
+     * Returns the revision of the texture atlas. Changes with every
+     * generation, and whenever any chunk tile is uploaded.
+     *
+     * @return Revision of the texture atlas.
+     */
+    public int getRevision() {
+        return this.revision;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getScale() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of level-of-detail levels above the chunk tiles.
+     *
+     * @return Number of level-of-detail levels.
+     */
+    public int getLodLevels() {
+        return this.lod != null ? this.lod.getLevelCount() : 0;
+    }
 
-        this.chunkWidth = 16.0 / texWidth;
-        this.chunkHeight = 16.0 / texHeight;
+    /**
+     * Sets the number of level-of-detail levels above the chunk tiles, up to
+     * the level whose tiles span the whole rendering distance. Must be called
+     * from the render thread.
+     *
+     * <p> The pyramid is only allocated while any levels are requested, and
+     * deleted again once none are, so an unzoomed map neither holds its
+     * texture pages nor spends any upload budget on it. Otherwise, only the
+     * levels at the top are added or deleted, and the kept ones stay as-is.
+     * Added levels are filled in over the following frames.
+     *
+     * @param levels Number of levels, {@code 0} to delete the pyramid.
+     */
+    public void setLodLevels(int levels) {
+        int current = this.getLodLevels();
 
-        /*
-         * We're now guaranteed to have enough texture area to store all chunks
-         * within the recalculated radius. This code is probably one giant
-         * no-op on modern computers, but it only runs once with every world
-         * load, so I figured I'd put in some fault tolerance.
-         */
+        levels = Math.min(levels, LodPyramid.getMaxLevelCount(this.window.getRadius()));
+        if (levels == current) {
+            return;
+        }
 
-        this.chunkCoords = new ChunkCoordIntPair[maxChunks];
-        this.reusableChunks = new BitSet(maxChunks);
+        if (levels == 0) {
+            this.lod.delete();
+            this.lod = null;
+            return;
+        }
 
-        this.texture = GL11.glGenTextures();
-        GlStateManager.bindTexture(this.texture);
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL12.GL_TEXTURE_MAX_LEVEL, 0);
-        GL11.glTexImage2D(
-                GL11.GL_TEXTURE_2D, 0,
-                GL11.GL_RGBA,
-                texWidth, texHeight, 0,
-                GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV,
-                (IntBuffer) null
-        );
+        if (this.lod == null) {
+            this.lod = new LodPyramid(this.window.getRadius(), this.spareChunks);
+        }
 
-        // I'm compelled to make a method that deletes the texture (+ other cleanup)
-        // but FMLModDisabledEvent was never properly hooked up. Skipping.
+        this.lod.setLevelCount(levels);
 
-        this.pixels = GLAllocation.createDirectIntBuffer(256);
+        // Only a new first level needs occupying from the chunk tiles.
+        if (current == 0) {
+            for (int offs = this.readyChunks.nextSetBit(0); offs >= 0; offs = this.readyChunks.nextSetBit(offs + 1)) {
+                ChunkCoordIntPair coords = this.chunkCoords[offs];
+                this.lod.chunkAdded(coords.chunkXPos, coords.chunkZPos);
+            }
+        }
     }
 
     /**
-     * Returns the recalculated chunk viewing radius.
+     * Returns the tile layer of the specified level of detail, where level
+     * {@code N} stores {@code 2^N x 2^N} chunks per tile.
      *
-     * <p> On modern computers, this will be equivalent to the radius provided
-     * to {@code ChunkAtlas::init()}. However, this value may be reduced
-     * if the maximum texture dimensions cannot contain enough chunk tiles for
-     * seamless rendering.
+     * <p> Level {@code 0} is drawn from the region super-tiles if enabled,
+     * and from this atlas otherwise.
      *
-     * @return Recalculated chunk viewing radius.
+     * @param level Level, from {@code 0} to {@code getLodLevels()}.
+     * @return Tile layer of the level.
      */
-    public int getChunkRadius() {
-        return this.radius;
+    public TileLayer getLayer(int level) {
+        if (level > 0) {
+            return this.lod.getLevel(level);
+        }
+
+        return this.regions != null ? this.regions : this;
+    }
+
+    /**
+     * Returns the number of texture pages the atlas spans.
+     *
+     * @return Number of texture pages.
+     */
+    @Override
+    public int getPageCount() {
+        return this.pages.getPageCount();
+    }
+
+    /**
+     * Returns the texture page holding the chunk tile at the specified
+     * offset.
+     *
+     * @param offset Chunk offset.
+     * @return Texture page of chunk tile.
+     */
+    @Override
+    public int getPage(int offset) {
+        return this.pages.getPage(offset);
     }
 
     /**
-     * Returns the OpenGL texture handle.
+     * Returns the OpenGL texture handle of the specified page.
      *
+     * @param page Texture page.
      * @return OpenGL texture handle.
      */
-    public int getTextureHandle() {
-        return this.texture;
+    @Override
+    public int getTextureHandle(int page) {
+        return this.pages.getTextureHandle(page);
     }
 
     /**
-     * Returns the chunk tile's normalized texture atlas X coordinate based on
-     * the specified offset.
+     * Returns the chunk tile's normalized X coordinate on its texture page
+     * based on the specified offset.
      *
      * @param offset Chunk offset.
      * @return Chunk tile's texture X coordinate
      */
+    @Override
     public double getSpriteX(int offset) {
-        return (offset & ((1 << this.chunkSpanL2) - 1)) * this.chunkWidth;
+        return this.pages.getSpriteX(offset);
     }
 
     /**
-     * Returns the chunk tile's normalized texture atlas Y coordinate based on
-     * the specified offset.
+     * Returns the chunk tile's normalized Y coordinate on its texture page
+     * based on the specified offset.
      *
      * @param offset Chunk offset.
      * @return Chunk tile's texture Y coordinate
      */
+    @Override
     public double getSpriteY(int offset) {
-        return (offset >> this.chunkSpanL2) * this.chunkHeight;
+        return this.pages.getSpriteY(offset);
     }
 
     /**
@@ -215,8 +494,9 @@ public class ChunkAtlas implements Iterable<ChunkTile> {
      *
      * @return Bormalized width of a chunk tile on the texture atlas.
      */
+    @Override
     public double getSpriteWidth() {
-        return this.chunkWidth;
+        return this.pages.getSpriteWidth();
     }
 
     /**
@@ -224,8 +504,96 @@ public class ChunkAtlas implements Iterable<ChunkTile> {
      *
      * @return Normalized height of a chunk tile on the texture atlas.
      */
+    @Override
     public double getSpriteHeight() {
-        return this.chunkHeight;
+        return this.pages.getSpriteHeight();
+    }
+
+    /**
+     * Takes over the settled chunk tiles of the specified atlas that lie
+     * within this atlas's rendering distance, along with its tile store, and
+     * binds the remaining chunks.
+     *
+     * @param old Atlas to migrate from.
+     */
+    private void migrateFrom(ChunkAtlas old) {
+        this.store = old.store;
+        old.store = null;
+
+        // Keep the generations apart, and discard any requests still in
+        // flight for the old atlas, as its slots mean nothing here.
+        this.generation = old.generation + 1;
+        this.revision = old.revision + 1;
+
+        int stampBase = 1;
+        for (int stamp : old.stamps) {
+            stampBase = Math.max(stampBase, stamp + 1);
+        }
+
+        Arrays.fill(this.stamps, stampBase);
+        Arrays.fill(this.uploadedStamps, stampBase);
+
+        if (!old.window.hasCenter()) {
+            return;
+        }
+
+        int centerX = old.window.getCenterX();
+        int centerZ = old.window.getCenterZ();
+        int radius = this.window.getRadius();
+
+        ContextCapabilities caps = GLContext.getCapabilities();
+        boolean gpuCopy = caps.OpenGL43;
+
+        for (int oldOffs = 0; oldOffs < old.chunkCoords.length; oldOffs++) {
+            ChunkCoordIntPair coords = old.chunkCoords[oldOffs];
+            if (coords == null || !old.isSettled(oldOffs)) {
+                continue;
+            }
+
+            int offsX = coords.chunkXPos - centerX;
+            int offsZ = coords.chunkZPos - centerZ;
+            if (offsX < -radius || offsX >= radius || offsZ < -radius || offsZ >= radius) {
+                continue;
+            }
+
+            int offs = this.slotIndex.reserve(coords.chunkXPos, coords.chunkZPos);
+            this.chunkCoords[offs] = coords;
+            this.hashes[offs] = old.hashes[oldOffs];
+            this.surfaces.copy(old.surfaces, oldOffs, offs);
+
+            if (gpuCopy) {
+                this.pages.copy(old.pages, oldOffs, offs);
+                this.markReady(offs);
+            }
+
+            // Staged tiles are newer than their texels.
+            if (!gpuCopy || old.uploads.isStaged(oldOffs)) {
+                this.uploads.stage(offs);
+            }
+        }
+
+        this.moveWindow(centerX, centerZ);
+    }
+
+    /**
+     * Deletes the texture pages and releases its upload backend. The atlas
+     * mustn't be used afterwards.
+     */
+    private void delete() {
+        this.pages.delete();
+
+        if (this.lod != null) {
+            this.lod.delete();
+        }
+
+        if (this.regions != null) {
+            this.regions.delete();
+        }
+        this.uploader.delete();
+
+        if (this.store != null) {
+            this.store.close();
+        }
     }
 
     /**
@@ -233,77 +601,180 @@ public class ChunkAtlas implements Iterable<ChunkTile> {
      */
     public void clear() {
         Arrays.fill(this.chunkCoords, null);
+        this.slotIndex.clear();
+        this.readyChunks.clear();
+        this.uploads.clear();
+        Arrays.fill(this.stagedPixels, null);
+        this.retainedChunks.clear();
+
+        if (this.lod != null) {
+            this.lod.clear();
+        }
+
+        if (this.regions != null) {
+            this.regions.clear();
+        }
+
+        this.generation++;
+        this.revision++;
+
+        this.window.reset();
+    }
+
+    /**
+     * Replaces the persistent tile store, closing the previous one. Chunks
+     * bound from now on are restored from the new store where possible, and
+     * freshly colorized tiles are written back to it.
+     *
+     * @param store Tile store of the current world, or {@code null}.
+     */
+    public void setTileStore(TileStore store) {
+        if (this.store != null) {
+            this.store.close();
+        }
+
+        this.store = store;
     }
 
     /**
-     * Binds unloaded chunks within rendering distance.
+     * Binds loaded chunks that entered the rendering distance, and discards
+     * the ones that left it.
+     *
+     * <p> Only the cells that entered or left the window since the previous
+     * call are processed, and if the central chunk hasn't changed, this does
+     * nothing at all. Chunks loaded by the world later on are bound by
+     * {@code ChunkAtlas::refreshChunk} as their data arrives.
      *
      * @param chunkX X coordinate of central chunk.
      * @param chunkZ Y coordinate of central chunk.
      */
     public void loadChunks(int chunkX, int chunkZ) {
-        World w = Minecraft.getMinecraft().theWorld;
-        if (w == null) {
+        if (Minecraft.getMinecraft().theWorld == null) {
             return;
         }
 
-        this.reusableChunks.clear();
+        long start = Stats.LOAD_CHUNKS.start();
+        this.moveWindow(chunkX, chunkZ);
+        Stats.LOAD_CHUNKS.stop(start);
+    }
 
-        // Mark any chunks that are loaded.
-        // If any lie outside the render distance, discard them.
-        for (int offs = 0; offs < this.chunkCoords.length; offs++) {
-            ChunkCoordIntPair coords = this.chunkCoords[offs];
-            if (coords == null) {
-                continue;
-            }
+    /**
+     * Moves the window to the specified central chunk, binding and unbinding
+     * chunks accordingly.
+     *
+     * <p> The chunks bound along the way are colorized as a batch, so that a
+     * full window, e.g. after joining a world or teleporting, is colorized
+     * across all cores, instead of one chunk after another.
+     *
+     * @param chunkX X coordinate of central chunk.
+     * @param chunkZ Z coordinate of central chunk.
+     */
+    private void moveWindow(int chunkX, int chunkZ) {
+        this.batching = true;
+        try {
+            this.window.moveTo(chunkX, chunkZ, this.windowListener);
+        } finally {
+            this.batching = false;
+        }
 
-            int offsX = coords.chunkXPos - chunkX;
-            int offsZ = coords.chunkZPos - chunkZ;
+        if (this.batch.size() > 0) {
+            this.colorizers.submit(this.batch);
+            this.batch.clear();
+        }
+    }
 
-            if (offsX < -this.radius || this.radius <= offsX) {
-                this.chunkCoords[offs] = null;
-                continue;
-            }
+    /**
+     * Binds the specified chunk, if loaded and not bound already. A retained
+     * chunk tile is taken back as-is.
+     *
+     * @param x Chunk's X coordinate.
+     * @param z Chunk's Z coordinate.
+     */
+    private void bindChunk(int x, int z) {
+        int offs = this.searchChunkAtlas(x, z);
+        if (offs != -1) {
+            // Block updates kept applying to the tile while retained.
+            if (this.retainedChunks.remove(offs)) {
+                if (this.regions != null) {
+                    this.regions.chunkAdded(x, z);
+                }
 
-            if (offsZ < -this.radius || this.radius <= offsZ) {
-                this.chunkCoords[offs] = null;
-                continue;
+                this.generation++;
+                this.revision++;
             }
 
-            offsX += this.radius;
-            offsZ += this.radius;
+            return;
+        }
 
-            this.reusableChunks.set(offsX + offsZ * this.radius * 2);
+        Chunk c = this.getLoadedChunk(x, z);
+        if (c != null) {
+            this.reserveOffset(c);
         }
+    }
 
-        // Identify any unloaded chunks and bind them.
-        for (int relZ = this.radius * 2 - 1; relZ >= 0; relZ--) {
-            for (int relX = this.radius * 2 - 1; relX >= 0; relX--) {
-                int checkIdx = relX + relZ * this.radius * 2;
+    /**
+     * Retains the specified chunk's tile after it left the window, if ready,
+     * and discards it otherwise.
+     *
+     * @param x Chunk's X coordinate.
+     * @param z Chunk's Z coordinate.
+     */
+    private void retainChunk(int x, int z) {
+        int offs = this.searchChunkAtlas(x, z);
+        if (offs == -1) {
+            return;
+        }
 
-                if (this.reusableChunks.get(checkIdx)) {
-                    continue;
-                }
+        if (!this.readyChunks.get(offs)) {
+            this.unbindChunk(x, z);
+            return;
+        }
+
+        this.retainedChunks.add(offs);
 
-                int x = chunkX + relX - this.radius;
-                int z = chunkZ + relZ - this.radius;
+        if (this.regions != null) {
+            this.regions.chunkRemoved(x, z);
+        }
+
+        this.generation++;
+        this.revision++;
+    }
 
-                Chunk c = this.getLoadedChunk(x, z);
-                if (c == null) {
-                    continue;
+    /**
+     * Discards the specified chunk's tile, if bound.
+     *
+     * @param x Chunk's X coordinate.
+     * @param z Chunk's Z coordinate.
+     */
+    private void unbindChunk(int x, int z) {
+        int offs = this.slotIndex.release(x, z);
+        if (offs != -1) {
+            this.chunkCoords[offs] = null;
+            this.retainedChunks.remove(offs);
+            this.uploads.cancel(offs);
+            this.stagedPixels[offs] = null;
+
+            if (this.readyChunks.get(offs)) {
+                this.readyChunks.clear(offs);
+
+                if (this.lod != null) {
+                    this.lod.chunkRemoved(x, z);
                 }
 
-                this.reserveOffset(c);
+                if (this.regions != null) {
+                    this.regions.chunkRemoved(x, z);
+                }
 
-                // Ensure correct shading of south chunk.
-                this.recolorChunk(x, z + 1);
+                this.generation++;
+                this.revision++;
             }
         }
     }
 
     /**
-     * Recolors the chunk at the specified coordinates, as well as the chunk
-     * immediately to the south, to ensure correct shading.
+     * Recolors the chunk at the specified coordinates, or binds it if it lies
+     * within rendering distance and isn't bound yet. The shading of the chunk
+     * immediately to the south is corrected once the new tile arrives.
      *
      * <p> No changes will be applied to any unloaded chunks referenced by this
      * invocation.
@@ -312,20 +783,375 @@ public class ChunkAtlas implements Iterable<ChunkTile> {
      * @param z Chunk's Z coordinate.
      */
     public void refreshChunk(int x, int z) {
-        this.recolorChunk(x, z);
-        this.recolorChunk(x, z + 1);
+        if (this.searchChunkAtlas(x, z) != -1) {
+            this.recolorChunk(x, z);
+        } else if (this.window.contains(x, z)) {
+            this.bindChunk(x, z);
+        }
     }
 
     /**
-     * Returns an iterator over all occupied chunk tiles. Use this to
-     * render all available chunks in one sweep.
+     * Rescans the block column at the specified block coordinates, and
+     * re-uploads the affected pixels.
+     *
+     * @param blockX Column's X coordinate.
+     * @param blockZ Column's Z coordinate.
+     * @see #refreshColumns(int, int, long[])
+     */
+    public void refreshColumn(int blockX, int blockZ) {
+        int column = (blockZ & 15) << 4 | blockX & 15;
+
+        Arrays.fill(this.columnMask, 0);
+        this.columnMask[column >> 6] = 1L << column;
+
+        this.refreshColumns(blockX >> 4, blockZ >> 4, this.columnMask);
+    }
+
+    /**
+     * Rescans a batch of block columns within the specified chunk, and
+     * re-uploads the affected pixels: the columns themselves, and the columns
+     * immediately to their south, to ensure correct shading. Every touched
+     * chunk tile is uploaded only once, as a single rectangle.
+     *
+     * <p> If the chunk's tile is still waiting for colorization, the whole
+     * chunk is recolored instead.
+     *
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     * @param mask   Bitmask of columns to rescan (4 entries), where bit
+     *               {@code z << 4 | x} represents column (x, z).
+     */
+    public void refreshColumns(int chunkX, int chunkZ, long[] mask) {
+        Chunk c = this.getLoadedChunk(chunkX, chunkZ);
+        if (c == null) {
+            return;
+        }
+
+        int offs = this.searchChunkAtlas(chunkX, chunkZ);
+        if (offs != -1 && !this.isSettled(offs)) {
+            this.updateColorData(c, offs);
+            offs = -1;
+        }
+
+        int south = -1;
+        if ((mask[3] & 0xffff000000000000L) != 0) {
+            south = this.searchChunkAtlas(chunkX, chunkZ + 1);
+
+            if (south != -1 && !this.isSettled(south)) {
+                this.recolorChunk(chunkX, chunkZ + 1);
+                south = -1;
+            }
+        }
+
+        if (offs == -1 && south == -1) {
+            return;
+        }
+
+        char[][] sections = ColumnScanner.viewSections(c, this.liveSections);
+
+        // Dirty rectangles of this tile, and of the south tile's top row.
+        int minX = 16, minZ = 16, maxX = -1, maxZ = -1;
+        int southMinX = 16, southMaxX = -1;
+
+        for (int word = 0; word < 4; word++) {
+            for (long bits = mask[word]; bits != 0; bits &= bits - 1) {
+                int column = word << 6 | Long.numberOfTrailingZeros(bits);
+                int x = column & 15;
+                int z = column >> 4;
+
+                int scan = this.scanner.scan(c, sections, x, z);
+
+                if (offs != -1 && scan != this.surfaces.getScan(offs, x, z)) {
+                    this.surfaces.setScan(offs, x, z, scan);
+                    this.hashes[offs] = 0;
+                    this.stagedPixels[offs] = null;
+
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minZ = Math.min(minZ, z);
+                    maxZ = Math.max(maxZ, Math.min(z + 1, 15));
+                }
+
+                int height = ColumnScanner.getHeight(scan);
+                if (z == 15 && south != -1 && height != this.surfaces.getNorthHeight(south, x)) {
+                    this.surfaces.setNorthHeight(south, x, height);
+
+                    southMinX = Math.min(southMinX, x);
+                    southMaxX = Math.max(southMaxX, x);
+                }
+            }
+        }
+
+        if (maxX >= 0) {
+            this.uploadRegion(offs, minX, minZ, maxX, maxZ);
+        }
+
+        if (southMaxX >= 0) {
+            this.uploadRegion(south, southMinX, 0, southMaxX, 0);
+        }
+    }
+
+    /**
+     * Stages colorized chunk tiles, and uploads the staged tiles nearest to
+     * the player to the texture atlas, until either the time budget or the
+     * tile budget runs out. Must be called from the render thread.
+     *
+     * <p> Tiles whose chunks were unbound, or recolored again in the
+     * meantime, are discarded. Tiles whose chunk data didn't change since
+     * the previous upload only have their edges reconciled.
+     *
+     * <p> Whatever's left of the tile budget then goes to the derived layers,
+     * so chunk tiles always take precedence.
+     *
+     * @param budgetNanos Time budget in nanoseconds.
+     * @param maxTiles    Maximum number of tiles to upload, chunk tiles and
+     *                    derived tiles combined.
+     */
+    public void uploadTiles(long budgetNanos, int maxTiles) {
+        long start = System.nanoTime();
+        long timing = Stats.UPLOAD_TILES.start();
+
+        // Staging is cheap, but mustn't starve the uploads.
+        long stagingDeadline = start + (budgetNanos >> 1);
+
+        ColorizedTile tile;
+        while ((tile = this.colorizers.poll()) != null) {
+            this.stageTile(tile);
+
+            if (System.nanoTime() >= stagingDeadline) {
+                break;
+            }
+        }
+
+        long deadline = start + budgetNanos;
+        int remaining = maxTiles;
+
+        if (this.uploads.size() > 0) {
+            remaining -= this.flushUploads(deadline, remaining);
+        }
+
+        int derived = 0;
+
+        if (this.lod != null && remaining > 0) {
+            derived += this.lod.update(this::sampleTile, this.uploader, deadline, remaining);
+        }
+
+        if (this.regions != null && remaining > derived) {
+            derived += this.regions.update(this::sampleTile, this.uploader, deadline, remaining - derived);
+        }
+
+        if (derived > 0) {
+            this.revision++;
+        }
+
+        // Any block updates were flushed earlier this frame.
+        this.uploader.endFrame();
+
+        Stats.UPLOAD_TILES.stop(timing);
+    }
+
+    /**
+     * Applies a colorized chunk tile to the surface cache and the tile store,
+     * and stages it for upload.
+     *
+     * <p> If the tile's surface fingerprint matches the uploaded one, only
+     * its content hash is updated, and nothing is uploaded.
+     *
+     * @param tile Colorized chunk tile.
+     */
+    private void stageTile(ColorizedTile tile) {
+        int offs = tile.getOffset();
+
+        if (this.chunkCoords[offs] == null || this.stamps[offs] != tile.getStamp()) {
+            return;
+        }
+
+        int chunkX = tile.getChunkX();
+        int chunkZ = tile.getChunkZ();
+        this.uploadedStamps[offs] = tile.getStamp();
+
+        if (tile.isUnchanged()) {
+            // A staged tile reconciles its edges once it's uploaded.
+            if (!this.uploads.isStaged(offs)) {
+                this.reconcileEdges(offs, chunkX, chunkZ);
+            }
+
+            return;
+        }
+
+        ChunkSurface surface = tile.getSurface();
+
+        // The chunk changed, but not its surface, e.g. from mining
+        // underground, so the uploaded texels are still up to date.
+        boolean sameSurface = this.readyChunks.get(offs)
+                && !this.uploads.isStaged(offs)
+                && surface.getFingerprint() == this.surfaces.getFingerprint(offs);
+
+        if (!sameSurface) {
+            this.surfaces.store(offs, surface);
+        }
+
+        this.hashes[offs] = tile.getHash();
+
+        if (this.store != null) {
+            surface.copyScans(this.storedScans, 0);
+            surface.copyNorthHeights(this.storedNorthHeights, 0);
+            this.store.write(chunkX, chunkZ, tile.getHash(), this.storedScans, this.storedNorthHeights);
+        }
+
+        if (sameSurface) {
+            Stats.UPLOADS_SKIPPED.increment();
+            this.reconcileEdges(offs, chunkX, chunkZ);
+            return;
+        }
+
+        this.stagedPixels[offs] = tile.getPixels();
+        this.uploads.stage(offs);
+    }
+
+    /**
+     * Uploads staged chunk tiles, nearest to the player first.
+     *
+     * <p> Tiles are taken in groups, and within each group, runs of tiles
+     * that are adjacent in the atlas are uploaded as a single sub-image.
+     * Tiles left over once the deadline passes stay staged for the next
+     * frame.
+     *
+     * @param deadline Time to stop uploading at, as per {@code System::nanoTime}.
+     * @param maxTiles Maximum number of chunk tiles to upload.
+     * @return Number of uploaded chunk tiles.
+     */
+    private int flushUploads(long deadline, int maxTiles) {
+        int centerX = this.window.hasCenter() ? this.window.getCenterX() : 0;
+        int centerZ = this.window.hasCenter() ? this.window.getCenterZ() : 0;
+
+        int count = this.uploads.poll(this.uploadSlots, maxTiles, this.chunkCoords, centerX, centerZ);
+
+        for (int i = 0; i < count; i += UPLOAD_BATCH) {
+            if (i > 0 && System.nanoTime() >= deadline) {
+                for (int j = i; j < count; j++) {
+                    this.uploads.stage(this.uploadSlots[j]);
+                }
+
+                return i;
+            }
+
+            int groupSize = Math.min(UPLOAD_BATCH, count - i);
+            System.arraycopy(this.uploadSlots, i, this.uploadGroup, 0, groupSize);
+            Arrays.sort(this.uploadGroup, 0, groupSize);
+
+            // Adjacent slots on the same atlas row, and thus page.
+            for (int run = 0; run < groupSize; ) {
+                int length = TileRuns.getRunLength(this.uploadGroup, run, groupSize, this.pages.getLayout());
+
+                this.uploadRun(this.uploadGroup[run], length);
+                run += length;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Uploads a run of adjacent chunk tiles on the same atlas row with a
+     * single call, then marks them ready and reconciles their neighbours.
+     *
+     * @param first  Texture atlas offset of leftmost chunk tile.
+     * @param length Number of chunk tiles.
+     */
+    private void uploadRun(int first, int length) {
+        this.revision++;
+
+        this.pages.bind(first);
+        TileRuns.upload(this.uploader, this.pages.getLayout(), first, length, this.runPixels);
+
+        for (int i = 0; i < length; i++) {
+            int offs = first + i;
+            ChunkCoordIntPair coords = this.chunkCoords[offs];
+
+            this.markReady(offs);
+            this.pushSouthEdge(offs, coords.chunkXPos, coords.chunkZPos);
+        }
+    }
+
+    /**
+     * Takes the staged pixels of a chunk tile about to be uploaded, after
+     * pulling in its north edge. Tiles without staged pixels are colored from
+     * the surface cache.
+     *
+     * @param offs Texture atlas offset of chunk tile.
+     * @return Pixels of chunk tile, row by row.
+     */
+    private int[] takeStagedPixels(int offs) {
+        ChunkCoordIntPair coords = this.chunkCoords[offs];
+
+        int[] pixels = this.stagedPixels[offs];
+        this.stagedPixels[offs] = null;
+
+        boolean northChanged = this.pullNorthEdge(offs, coords.chunkXPos, coords.chunkZPos);
+
+        if (pixels == null) {
+            pixels = this.tilePixels;
+            for (int col = 0; col < 256; col++) {
+                pixels[col] = this.surfaces.getColor(offs, col & 15, col >> 4);
+            }
+        } else if (northChanged) {
+            for (int x = 0; x < 16; x++) {
+                pixels[x] = this.surfaces.getColor(offs, x, 0);
+            }
+        }
+
+        return pixels;
+    }
+
+    /**
+     * Reconciles the edges of an uploaded chunk tile with its north and south
+     * neighbours, re-uploading any rows whose shading changed.
+     *
+     * @param offs   Texture atlas offset of chunk tile.
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     */
+    private void reconcileEdges(int offs, int chunkX, int chunkZ) {
+        if (this.pullNorthEdge(offs, chunkX, chunkZ)) {
+            this.uploadRegion(offs, 0, 0, 15, 0);
+        }
+
+        this.pushSouthEdge(offs, chunkX, chunkZ);
+    }
+
+    /**
+     * Visits all occupied chunk tiles within the window in one sweep, without
+     * allocating. Use this to render all available chunks. Retained tiles
+     * outside the window are skipped, as they'd never be drawn.
+     *
+     * @param visitor Receiver of chunk tiles.
+     */
+    @Override
+    public void forEachTile(ChunkTileVisitor visitor) {
+        for (int offs = this.readyChunks.nextSetBit(0); offs >= 0; offs = this.readyChunks.nextSetBit(offs + 1)) {
+            ChunkCoordIntPair coords = this.chunkCoords[offs];
+            if (coords != null && !this.retainedChunks.contains(offs)) {
+                visitor.visit(coords.chunkXPos, coords.chunkZPos, offs);
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator over all occupied chunk tiles within the window.
+     *
+     * <p> Allocates a tile object for every chunk, so it's only kept for
+     * compatibility.
      *
      * @return An iterator over all occupied chunk tiles.
+     * @deprecated Use {@link #forEachTile(ChunkTileVisitor)} instead.
      */
+    @Deprecated
     @Override
     public Iterator<ChunkTile> iterator() {
         return IntStream.range(0, this.chunkCoords.length)
-                .filter(offs -> this.chunkCoords[offs] != null)
+                .filter(offs -> this.chunkCoords[offs] != null && this.readyChunks.get(offs)
+                        && !this.retainedChunks.contains(offs))
                 .mapToObj(offs -> {
                     ChunkCoordIntPair coords = this.chunkCoords[offs];
                     return new ChunkTile(coords.chunkXPos, coords.chunkZPos, offs);
@@ -339,7 +1165,16 @@ public class ChunkAtlas implements Iterable<ChunkTile> {
      * @param c Chunk to be bound.
      */
     private void reserveOffset(Chunk c) {
-        int offs = this.searchChunkAtlas(null);
+        int offs = this.slotIndex.reserve(c.xPosition, c.zPosition);
+
+        // Out of spare slots, so evict the least recently used tile.
+        if (offs == -1 && this.retainedChunks.size() > 0) {
+            ChunkCoordIntPair evicted = this.chunkCoords[this.retainedChunks.poll()];
+            this.unbindChunk(evicted.chunkXPos, evicted.chunkZPos);
+
+            offs = this.slotIndex.reserve(c.xPosition, c.zPosition);
+        }
+
         if (offs == -1) {
             /*
              * The way this code works, shouldn't ever happen.
@@ -350,10 +1185,100 @@ public class ChunkAtlas implements Iterable<ChunkTile> {
         }
 
         this.chunkCoords[offs] = c.getChunkCoordIntPair();
+        this.readyChunks.clear(offs);
+        this.hashes[offs] = 0;
+
+        if (this.store != null) {
+            this.restoreTile(c.xPosition, c.zPosition, offs);
+        }
 
+        // Validates the restored tile, if any, against the live chunk.
         this.updateColorData(c, offs);
     }
 
+    /**
+     * Restores the specified chunk tile from the persistent tile store, and
+     * stages it for upload, so that it can be rendered before colorization
+     * catches up.
+     *
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     * @param offs   Texture atlas offset of chunk tile.
+     */
+    private void restoreTile(int chunkX, int chunkZ, int offs) {
+        long hash = this.store.read(chunkX, chunkZ, this.storedScans, this.storedNorthHeights);
+        if (hash == 0) {
+            return;
+        }
+
+        this.surfaces.store(offs, this.storedScans, this.storedNorthHeights);
+
+        this.hashes[offs] = hash;
+        this.uploadedStamps[offs] = ++this.stamps[offs];
+        this.uploads.stage(offs);
+    }
+
+    /**
+     * Copies the southern edge heights of the north chunk tile into the
+     * specified tile's surface cache, if the north tile is settled. A settled
+     * north tile has seen every block update since any snapshot was
+     * captured, so its edge is preferred.
+     *
+     * @param offs   Texture atlas offset of chunk tile.
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     * @return {@code true} iff any of the north edge heights changed.
+     */
+    private boolean pullNorthEdge(int offs, int chunkX, int chunkZ) {
+        int north = this.searchChunkAtlas(chunkX, chunkZ - 1);
+        if (north == -1 || !this.isSettled(north)) {
+            return false;
+        }
+
+        boolean changed = false;
+
+        for (int x = 0; x < 16; x++) {
+            int height = this.surfaces.getHeight(north, x, 15);
+
+            if (height != this.surfaces.getNorthHeight(offs, x)) {
+                this.surfaces.setNorthHeight(offs, x, height);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Copies the specified tile's southern edge heights into the south chunk
+     * tile, if settled, and re-uploads its top row to ensure correct shading.
+     *
+     * @param offs   Texture atlas offset of chunk tile.
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     */
+    private void pushSouthEdge(int offs, int chunkX, int chunkZ) {
+        int south = this.searchChunkAtlas(chunkX, chunkZ + 1);
+        if (south == -1 || !this.isSettled(south)) {
+            return;
+        }
+
+        boolean changed = false;
+
+        for (int x = 0; x < 16; x++) {
+            int height = this.surfaces.getHeight(offs, x, 15);
+
+            if (height != this.surfaces.getNorthHeight(south, x)) {
+                this.surfaces.setNorthHeight(south, x, height);
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            this.uploadRegion(south, 0, 0, 15, 0);
+        }
+    }
+
     /**
      * Recolors chunk at specified coordinates.
      *
@@ -366,7 +1291,7 @@ public class ChunkAtlas implements Iterable<ChunkTile> {
             return;
         }
 
-        int offs = this.searchChunkAtlas(new ChunkCoordIntPair(x, z));
+        int offs = this.searchChunkAtlas(x, z);
         if (offs == -1) {
             return;
         }
@@ -375,141 +1300,144 @@ public class ChunkAtlas implements Iterable<ChunkTile> {
     }
 
     /**
-     * Uploads the chunk's color data to the texture atlas.
+     * Snapshots the chunk and schedules its color data for colorization and
+     * upload to the texture atlas.
+     *
+     * <p> The snapshot includes the southern edge of the chunk immediately to
+     * the north, if loaded, to ensure correct shading.
      *
      * @param src  Chunk to scan and upload.
      * @param offs Texture atlas offset of chunk tile.
      */
     private void updateColorData(Chunk src, int offs) {
-        this.computeColors(src);
-
-        int x = offs & ((1 << this.chunkSpanL2) - 1);
-        int y = offs >> this.chunkSpanL2;
-
-        x <<= 4;
-        y <<= 4;
+        Chunk north = this.getLoadedChunk(src.xPosition, src.zPosition - 1);
+        ChunkSnapshot snapshot = ChunkSnapshot.capture(src, north);
 
-        GlStateManager.bindTexture(this.texture);
-        GL11.glTexSubImage2D(
-                GL11.GL_TEXTURE_2D, 0,
-                x, y, 16, 16,
-                GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV,
-                this.pixels
-        );
+        if (this.batching) {
+            this.batch.add(snapshot, offs, ++this.stamps[offs], this.hashes[offs]);
+        } else {
+            this.colorizers.submit(snapshot, offs, ++this.stamps[offs], this.hashes[offs]);
+        }
     }
 
     /**
-     * Computes the color and shading of the specified chunk, and stores the
-     * result in {@code ChunkAtlas::pixels}.
+     * Re-uploads a rectangle of the specified chunk tile, colored from the
+     * surface cache. Must be called from the render thread.
      *
-     * <p> This method will attempt to access the chunk immediately to the north of
-     * the one specified to ensure correct shading if possible, and defaults to
-     * 86% brightness if access fails.
-     *
-     * @param src Source chunk for color computation.
+     * @param offs Texture atlas offset of chunk tile.
+     * @param minX Minimum column X coordinate (inclusive).
+     * @param minZ Minimum column Z coordinate (inclusive).
+     * @param maxX Maximum column X coordinate (inclusive).
+     * @param maxZ Maximum column Z coordinate (inclusive).
      */
-    private void computeColors(Chunk src) {
-        int[] northHeights = new int[16];
-        Arrays.fill(northHeights, -1);
+    private void uploadRegion(int offs, int minX, int minZ, int maxX, int maxZ) {
+        int width = maxX - minX + 1;
+        int height = maxZ - minZ + 1;
 
-        Chunk north = this.getLoadedChunk(src.xPosition, src.zPosition - 1);
-        if (north != null) {
-            for (int x = 0; x < 16; x++) {
-                northHeights[x] = this.getTopColoredBlockState(north, x, 15).getY();
+        int base = this.uploader.reserve(width * height);
+        IntBuffer buffer = this.uploader.getBuffer();
+
+        int i = base;
+        for (int z = minZ; z <= maxZ; z++) {
+            for (int x = minX; x <= maxX; x++) {
+                buffer.put(i++, this.surfaces.getColor(offs, x, z));
             }
         }
 
-        for (int x = 0; x < 16; x++) {
-            int northHeight = northHeights[x];
-
-            for (int z = 0; z < 16; z++) {
-                BlockPos pos = this.getTopColoredBlockState(src, x, z);
-                IBlockState state = src.getBlockState(pos);
-                MapColor color = state.getBlock().getMapColor(state);
+        int x = this.pages.getColumn(offs);
+        int y = this.pages.getRow(offs);
 
-                // Solid block shading
-                int height = pos.getY();
-                int shade = 1;
+        this.revision++;
+        this.chunkChanged(this.chunkCoords[offs]);
 
-                if (northHeight > height) {
-                    shade = 0;
-                } else if (northHeight >= 0 && northHeight < height) {
-                    shade = 2;
-                }
+        this.pages.bind(offs);
+        this.uploader.upload(base, (x << 4) + minX, (y << 4) + minZ, width, height);
+    }
 
-                // Liquid shading
-                int depth = 0;
-                while (pos.getY() >= 0 && !state.getBlock().getMaterial().isSolid()) {
-                    pos = pos.add(0, -1, 0);
-                    state = src.getBlockState(pos);
-                    depth++;
-                }
+    /**
+     * Marks the specified chunk tile as holding uploaded color data, so it
+     * can be rendered.
+     *
+     * @param offs Texture atlas offset of chunk tile.
+     */
+    private void markReady(int offs) {
+        ChunkCoordIntPair coords = this.chunkCoords[offs];
 
-                // Optimized version of code located in ItemMap::updateMapData
-                if (depth > 0) {
-                    int dither = depth + (((x ^ z) & 1) << 1);
+        if (!this.readyChunks.get(offs)) {
+            this.readyChunks.set(offs);
 
-                    if (dither < 5) {
-                        shade = 2;
-                    } else if (dither > 9) {
-                        shade = 0;
-                    }
-                }
+            if (this.lod != null) {
+                this.lod.chunkAdded(coords.chunkXPos, coords.chunkZPos);
+            }
 
-                int rgb;
+            if (this.regions != null) {
+                this.regions.chunkAdded(coords.chunkXPos, coords.chunkZPos);
+            }
 
-                // Void shading
-                if (height > 0) {
-                    rgb = color.func_151643_b(shade);
-                } else if (((x ^ z) & 3) == 0) {
-                    rgb = 0x2d2d5a;
-                } else {
-                    rgb = 0x1e1e3c;
-                }
+            this.generation++;
+            this.revision++;
+        } else {
+            this.chunkChanged(coords);
+        }
+    }
 
-                northHeight = height;
+    /**
+     * Marks the tiles derived from a re-uploaded chunk tile outdated.
+     *
+     * @param coords Chunk's coordinates.
+     */
+    private void chunkChanged(ChunkCoordIntPair coords) {
+        if (this.lod != null) {
+            this.lod.chunkChanged(coords.chunkXPos, coords.chunkZPos);
+        }
 
-                this.pixels.put(x | z << 4, rgb);
-            }
+        if (this.regions != null) {
+            this.regions.chunkChanged(coords.chunkXPos, coords.chunkZPos);
         }
     }
 
     /**
-     * Returns the topmost colored block at the specified block coordinates.
+     * Copies the colors of the specified chunk tile, if uploaded.
      *
-     * @param src Chunk to search.
-     * @param x   Block's X coordinate.
-     * @param z   Block's Z coordinate.
-     * @return Topmost colored block at the specified coordinates.
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     * @param pixels Destination of 16x16 colors, row by row.
+     * @return {@code true} iff the chunk tile is uploaded.
      */
-    private BlockPos getTopColoredBlockState(Chunk src, int x, int z) {
-        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
-
-        for (int y = src.getTopFilledSegment() + 15; y >= 0; y--) {
-            IBlockState state = src.getBlockState(pos.set(x, y, z));
+    private boolean sampleTile(int chunkX, int chunkZ, int[] pixels) {
+        int offs = this.slotIndex.get(chunkX, chunkZ);
+        if (offs == -1 || !this.readyChunks.get(offs)) {
+            return false;
+        }
 
-            if (state.getBlock().getMapColor(state) != MapColor.airColor) {
-                break;
-            }
+        for (int col = 0; col < 256; col++) {
+            pixels[col] = this.surfaces.getColor(offs, col & 15, col >> 4);
         }
 
-        return pos;
+        return true;
+    }
+
+    /**
+     * Determines whether the specified chunk tile has been uploaded, with no
+     * colorization requests still outstanding. Only settled tiles can be
+     * updated from the surface cache.
+     *
+     * @param offs Texture atlas offset of chunk tile.
+     * @return {@code true} iff the chunk tile is settled.
+     */
+    private boolean isSettled(int offs) {
+        return this.readyChunks.get(offs) && this.uploadedStamps[offs] == this.stamps[offs];
     }
 
     /**
      * Returns index of bound chunk.
      *
-     * @param c Chunk's coordinates.
+     * @param x Chunk's X coordinate.
+     * @param z Chunk's Z coordinate.
      * @return Index of bound chunk, {@code -1} otherwise.
      */
-    private int searchChunkAtlas(ChunkCoordIntPair c) {
-        for (int offs = 0; offs < this.chunkCoords.length; offs++) {
-            if (Objects.equals(c, this.chunkCoords[offs])) {
-                return offs;
-            }
-        }
-
-        return -1;
+    private int searchChunkAtlas(int x, int z) {
+        return this.slotIndex.get(x, z);
     }
 
     /**
@@ -0,0 +1,224 @@
+package dev.cadmik.minimap.render;
+
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.renderer.vertex.VertexBuffer;
+import org.lwjgl.opengl.GL11;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The cached quad mesh of all occupied tiles of a TileLayer, such as the
+ * ChunkAtlas.
+ *
+ * <p> Tiles only change when chunks are bound, unbound or uploaded for the
+ * first time, so the mesh is built once per layer generation, in block
+ * coordinates relative to an origin chunk. Every other frame it's drawn with
+ * a single call per texture page, translated to the camera.
+ *
+ * <p> Like {@code RenderGlobal}, the mesh lives in a vertex buffer object if
+ * VBOs are enabled, and in display lists otherwise.
+ */
+public final class ChunkMesh {
+    /**
+     * Size of a {@code POSITION_TEX} vertex, in bytes.
+     */
+    private static final int VERTEX_SIZE = 20;
+
+    private VertexBuffer vbo;
+    private int displayLists = -1;
+    private int displayListCount;
+
+    /**
+     * The range of vertices drawn from each texture page. Tiles are visited in
+     * offset order, so each page's quads are contiguous.
+     */
+    private int[] pageFirst = new int[0];
+    private int[] pageCount = new int[0];
+
+    /**
+     * Whether the mesh was built into the VBO. VBOs can be toggled in the
+     * video settings at any time, which forces a rebuild.
+     */
+    private boolean usingVbo;
+
+    /**
+     * The layer and generation the mesh was built from, and its origin chunk.
+     */
+    private TileLayer layer;
+    private int generation;
+    private int originX, originZ;
+
+    private boolean empty;
+
+    /**
+     * Draws all occupied tiles of the layer, rebuilding the mesh first if the
+     * layer changed since. Binds each texture page in turn.
+     *
+     * @param layer Tile layer to draw.
+     * @param x     Player's world X coordinate.
+     * @param z     Player's world Z coordinate.
+     */
+    public void draw(TileLayer layer, double x, double z) {
+        if (this.layer != layer
+                || this.generation != layer.getGeneration()
+                || this.pageCount.length != layer.getPageCount()
+                || this.usingVbo != OpenGlHelper.useVbo()) {
+            this.build(layer, (int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4);
+        }
+
+        if (this.empty) {
+            return;
+        }
+
+        GlStateManager.pushMatrix();
+        GlStateManager.translate((this.originX << 4) - x, (this.originZ << 4) - z, 0);
+
+        if (this.usingVbo) {
+            GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+            GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+
+            this.vbo.bindBuffer();
+            GL11.glVertexPointer(3, GL11.GL_FLOAT, VERTEX_SIZE, 0);
+            GL11.glTexCoordPointer(2, GL11.GL_FLOAT, VERTEX_SIZE, 12);
+
+            for (int page = 0; page < this.pageCount.length; page++) {
+                if (this.pageCount[page] != 0) {
+                    GlStateManager.bindTexture(layer.getTextureHandle(page));
+                    GL11.glDrawArrays(GL11.GL_QUADS, this.pageFirst[page], this.pageCount[page]);
+                }
+            }
+
+            this.vbo.unbindBuffer();
+
+            GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+            GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+        } else {
+            for (int page = 0; page < this.pageCount.length; page++) {
+                if (this.pageCount[page] != 0) {
+                    GlStateManager.bindTexture(layer.getTextureHandle(page));
+                    GL11.glCallList(this.displayLists + page);
+                }
+            }
+        }
+
+        GlStateManager.popMatrix();
+    }
+
+    /**
+     * Tessellates the occupied tiles of the layer around the specified origin
+     * chunk, and stores them in the VBO or display lists.
+     *
+     * @param layer   Tile layer to build from.
+     * @param originX X coordinate of origin chunk.
+     * @param originZ Z coordinate of origin chunk.
+     */
+    private void build(TileLayer layer, int originX, int originZ) {
+        Tessellator tess = Tessellator.getInstance();
+        WorldRenderer wr = tess.getWorldRenderer();
+
+        double tileWidth = layer.getSpriteWidth();
+        double tileHeight = layer.getSpriteHeight();
+
+        int scale = layer.getScale();
+        int size = 16 << scale;
+
+        int pages = layer.getPageCount();
+        if (this.pageCount.length != pages) {
+            this.pageFirst = new int[pages];
+            this.pageCount = new int[pages];
+        }
+
+        int[] pageCount = this.pageCount;
+        Arrays.fill(pageCount, 0);
+
+        wr.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
+
+        layer.forEachTile((tileX, tileZ, offset) -> {
+            double minX = layer.getSpriteX(offset);
+            double minY = layer.getSpriteY(offset);
+
+            double maxX = minX + tileWidth;
+            double maxY = minY + tileHeight;
+
+            double renderX = ((tileX << scale) - originX) << 4;
+            double renderY = ((tileZ << scale) - originZ) << 4;
+
+            wr.pos(renderX, renderY, 0).tex(minX, minY).endVertex();
+            wr.pos(renderX, renderY + size, 0).tex(minX, maxY).endVertex();
+            wr.pos(renderX + size, renderY + size, 0).tex(maxX, maxY).endVertex();
+            wr.pos(renderX + size, renderY + 0, 0).tex(maxX, minY).endVertex();
+
+            pageCount[layer.getPage(offset)] += 4;
+        });
+
+        for (int page = 1; page < pages; page++) {
+            this.pageFirst[page] = this.pageFirst[page - 1] + pageCount[page - 1];
+        }
+
+        this.empty = wr.getVertexCount() == 0;
+
+        wr.finishDrawing();
+
+        if (OpenGlHelper.useVbo()) {
+            if (this.vbo == null) {
+                this.vbo = new VertexBuffer(DefaultVertexFormats.POSITION_TEX);
+            }
+
+            this.vbo.bufferData(wr.getByteBuffer());
+        } else {
+            this.compileDisplayLists(wr.getByteBuffer(), pages);
+        }
+
+        wr.reset();
+
+        this.layer = layer;
+        this.usingVbo = OpenGlHelper.useVbo();
+        this.generation = layer.getGeneration();
+        this.originX = originX;
+        this.originZ = originZ;
+    }
+
+    /**
+     * Compiles one display list per texture page from the tessellated vertices,
+     * which are read from client memory at compile time.
+     *
+     * @param vertices Tessellated vertices.
+     * @param pages    Number of texture pages.
+     */
+    private void compileDisplayLists(ByteBuffer vertices, int pages) {
+        if (this.displayListCount != pages) {
+            if (this.displayLists != -1) {
+                GLAllocation.deleteDisplayLists(this.displayLists, this.displayListCount);
+            }
+
+            this.displayLists = GLAllocation.generateDisplayLists(pages);
+            this.displayListCount = pages;
+        }
+
+        GL11.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+        GL11.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+
+        vertices.position(0);
+        GL11.glVertexPointer(3, GL11.GL_FLOAT, VERTEX_SIZE, vertices);
+        vertices.position(12);
+        GL11.glTexCoordPointer(2, GL11.GL_FLOAT, VERTEX_SIZE, vertices);
+        vertices.position(0);
+
+        for (int page = 0; page < pages; page++) {
+            GL11.glNewList(this.displayLists + page, GL11.GL_COMPILE);
+            if (this.pageCount[page] != 0) {
+                GL11.glDrawArrays(GL11.GL_QUADS, this.pageFirst[page], this.pageCount[page]);
+            }
+            GL11.glEndList();
+        }
+
+        GL11.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        GL11.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+    }
+}
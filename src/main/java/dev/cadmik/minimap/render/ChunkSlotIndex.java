@@ -0,0 +1,170 @@
+package dev.cadmik.minimap.render;
+
+import java.util.Arrays;
+
+/**
+ * A primitive index mapping chunk coordinates to ChunkAtlas slots.
+ *
+ * <p> Coordinates are packed into a single {@code long} and stored in an
+ * open-addressing table with linear probing, so both lookups and slot
+ * reservations run in constant time without allocating. Unused slots are
+ * kept on a stack, which replaces searching the atlas for a {@code null}
+ * entry.
+ */
+final class ChunkSlotIndex {
+    /**
+     * Marks an empty table entry. Slots are never negative.
+     */
+    private static final int NO_SLOT = -1;
+
+    private final long[] keys;
+    private final int[] slots;
+    private final int mask;
+
+    private final int[] freeSlots;
+    private int freeCount;
+
+    /**
+     * Creates an index for the specified number of atlas slots.
+     *
+     * @param capacity Number of atlas slots.
+     */
+    ChunkSlotIndex(int capacity) {
+        // Keep the load factor at or below 50%, so probe chains stay short.
+        int tableSize = Integer.highestOneBit(Math.max(capacity, 1) << 1) << 1;
+
+        this.keys = new long[tableSize];
+        this.slots = new int[tableSize];
+        this.mask = tableSize - 1;
+
+        this.freeSlots = new int[capacity];
+        this.clear();
+    }
+
+    /**
+     * Packs a pair of chunk coordinates into a single key.
+     *
+     * @param x Chunk's X coordinate.
+     * @param z Chunk's Z coordinate.
+     * @return Packed chunk coordinates.
+     */
+    static long pack(int x, int z) {
+        return (long) x << 32 | z & 0xffffffffL;
+    }
+
+    /**
+     * Returns the slot bound to the specified chunk.
+     *
+     * @param x Chunk's X coordinate.
+     * @param z Chunk's Z coordinate.
+     * @return Slot of bound chunk, {@code -1} otherwise.
+     */
+    int get(int x, int z) {
+        long key = pack(x, z);
+
+        for (int i = hash(key) & this.mask; ; i = i + 1 & this.mask) {
+            int slot = this.slots[i];
+            if (slot == NO_SLOT || this.keys[i] == key) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Binds the specified chunk to a free slot. If the chunk is already
+     * bound, its current slot is returned instead.
+     *
+     * @param x Chunk's X coordinate.
+     * @param z Chunk's Z coordinate.
+     * @return Slot of bound chunk, {@code -1} if no slots are free.
+     */
+    int reserve(int x, int z) {
+        long key = pack(x, z);
+
+        int i = hash(key) & this.mask;
+        for (; this.slots[i] != NO_SLOT; i = i + 1 & this.mask) {
+            if (this.keys[i] == key) {
+                return this.slots[i];
+            }
+        }
+
+        if (this.freeCount == 0) {
+            return NO_SLOT;
+        }
+
+        int slot = this.freeSlots[--this.freeCount];
+        this.keys[i] = key;
+        this.slots[i] = slot;
+
+        return slot;
+    }
+
+    /**
+     * Unbinds the specified chunk and returns its slot to the free stack.
+     *
+     * @param x Chunk's X coordinate.
+     * @param z Chunk's Z coordinate.
+     * @return Slot previously bound to the chunk, {@code -1} otherwise.
+     */
+    int release(int x, int z) {
+        long key = pack(x, z);
+
+        int i = hash(key) & this.mask;
+        for (; this.slots[i] != NO_SLOT; i = i + 1 & this.mask) {
+            if (this.keys[i] == key) {
+                break;
+            }
+        }
+
+        int slot = this.slots[i];
+        if (slot == NO_SLOT) {
+            return NO_SLOT;
+        }
+
+        this.removeEntry(i);
+        this.freeSlots[this.freeCount++] = slot;
+
+        return slot;
+    }
+
+    /**
+     * Unbinds all chunks.
+     */
+    void clear() {
+        Arrays.fill(this.slots, NO_SLOT);
+
+        // Lowest slots are handed out first, like the old linear search.
+        int capacity = this.freeSlots.length;
+        for (int i = 0; i < capacity; i++) {
+            this.freeSlots[i] = capacity - 1 - i;
+        }
+
+        this.freeCount = capacity;
+    }
+
+    /**
+     * Removes the table entry at the specified index, shifting any displaced
+     * entries back so that no tombstones are needed.
+     *
+     * @param hole Table index of entry to remove.
+     */
+    private void removeEntry(int hole) {
+        for (int i = hole + 1 & this.mask; this.slots[i] != NO_SLOT; i = i + 1 & this.mask) {
+            int home = hash(this.keys[i]) & this.mask;
+
+            // Move the entry only if its home lies cyclically outside (hole, i].
+            if ((i - home & this.mask) >= (i - hole & this.mask)) {
+                this.keys[hole] = this.keys[i];
+                this.slots[hole] = this.slots[i];
+                hole = i;
+            }
+        }
+
+        this.slots[hole] = NO_SLOT;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ h >>> 32);
+    }
+}
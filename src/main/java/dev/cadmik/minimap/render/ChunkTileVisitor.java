@@ -0,0 +1,18 @@
+package dev.cadmik.minimap.render;
+
+/**
+ * Receives the chunk tiles of a ChunkAtlas sweep, as primitives.
+ *
+ * @see ChunkAtlas#forEachTile(ChunkTileVisitor)
+ */
+@FunctionalInterface
+public interface ChunkTileVisitor {
+    /**
+     * Visits a single chunk tile.
+     *
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     * @param offset Texture atlas offset of chunk tile.
+     */
+    void visit(int chunkX, int chunkZ, int offset);
+}
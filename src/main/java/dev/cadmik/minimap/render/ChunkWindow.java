@@ -0,0 +1,177 @@
+package dev.cadmik.minimap.render;
+
+/**
+ * The square window of chunks within rendering distance of a central chunk.
+ *
+ * <p> Tracks the central chunk between moves, and reports only the chunks
+ * that entered or left the window since the previous move. Knows nothing of
+ * the texture atlas itself, so it can be exercised without a GL context.
+ */
+final class ChunkWindow {
+    /**
+     * Receives the chunks entering and leaving the window.
+     */
+    interface Listener {
+        void chunkEntered(int x, int z);
+
+        void chunkLeft(int x, int z);
+    }
+
+    private final int radius;
+
+    private boolean hasCenter;
+    private int centerX, centerZ;
+
+    /**
+     * Creates a window without a central chunk.
+     *
+     * @param radius Chunk viewing radius.
+     */
+    ChunkWindow(int radius) {
+        this.radius = radius;
+    }
+
+    int getRadius() {
+        return this.radius;
+    }
+
+    boolean hasCenter() {
+        return this.hasCenter;
+    }
+
+    int getCenterX() {
+        return this.centerX;
+    }
+
+    int getCenterZ() {
+        return this.centerZ;
+    }
+
+    /**
+     * Forgets the central chunk, without reporting any chunks as left. The
+     * next move reports every chunk of the new window as entered.
+     */
+    void reset() {
+        this.hasCenter = false;
+    }
+
+    /**
+     * Moves the window to the specified central chunk.
+     *
+     * <p> If the central chunk hasn't changed, this does nothing at all.
+     *
+     * @param chunkX   X coordinate of central chunk.
+     * @param chunkZ   Z coordinate of central chunk.
+     * @param listener Receiver of entering and leaving chunks.
+     * @return {@code true} iff the window moved.
+     */
+    boolean moveTo(int chunkX, int chunkZ, Listener listener) {
+        int span = this.radius * 2;
+
+        if (!this.hasCenter
+                || Math.abs(chunkX - this.centerX) >= span
+                || Math.abs(chunkZ - this.centerZ) >= span) {
+            this.jump(chunkX, chunkZ, listener);
+        } else if (chunkX != this.centerX || chunkZ != this.centerZ) {
+            this.shift(chunkX, chunkZ, listener);
+        } else {
+            return false;
+        }
+
+        this.hasCenter = true;
+        this.centerX = chunkX;
+        this.centerZ = chunkZ;
+
+        return true;
+    }
+
+    /**
+     * Determines whether the specified chunk lies within the window. A window
+     * without a central chunk contains nothing.
+     *
+     * @param x Chunk's X coordinate.
+     * @param z Chunk's Z coordinate.
+     * @return {@code true} iff specified chunk lies within the window.
+     */
+    boolean contains(int x, int z) {
+        return this.hasCenter && this.contains(x, z, this.centerX, this.centerZ);
+    }
+
+    /**
+     * Reports every chunk of the previous window as left, and every chunk of
+     * the new window as entered. The windows mustn't overlap.
+     *
+     * @param chunkX X coordinate of central chunk.
+     * @param chunkZ Z coordinate of central chunk.
+     */
+    private void jump(int chunkX, int chunkZ, Listener listener) {
+        if (this.hasCenter) {
+            for (int z = this.centerZ - this.radius; z < this.centerZ + this.radius; z++) {
+                for (int x = this.centerX - this.radius; x < this.centerX + this.radius; x++) {
+                    listener.chunkLeft(x, z);
+                }
+            }
+        }
+
+        for (int z = chunkZ - this.radius; z < chunkZ + this.radius; z++) {
+            for (int x = chunkX - this.radius; x < chunkX + this.radius; x++) {
+                listener.chunkEntered(x, z);
+            }
+        }
+    }
+
+    /**
+     * Shifts the window from the previous central chunk to the specified one,
+     * reporting the chunks that left the window, and the ones that entered it.
+     *
+     * <p> A chunk's ring position is its coordinates modulo the window span.
+     * Every window position covers each ring position exactly once, so a cell
+     * leaving the window shares its ring position with the cell entering it
+     * on the opposite edge. Thus only the leaving cells need to be visited.
+     *
+     * <p> The window must not move by a full span or more along either axis.
+     *
+     * @param chunkX X coordinate of new central chunk.
+     * @param chunkZ Z coordinate of new central chunk.
+     */
+    private void shift(int chunkX, int chunkZ, Listener listener) {
+        int span = this.radius * 2;
+        int minX = this.centerX - this.radius;
+        int minZ = this.centerZ - this.radius;
+
+        int newMinX = chunkX - this.radius;
+        int newMinZ = chunkZ - this.radius;
+
+        for (int relZ = 0; relZ < span; relZ++) {
+            int z = minZ + relZ;
+            boolean rowLeaving = z < newMinZ || newMinZ + span <= z;
+
+            for (int relX = 0; relX < span; relX++) {
+                int x = minX + relX;
+
+                // Only visit whole rows when they leave; otherwise, only the
+                // leaving columns at either end.
+                if (!rowLeaving) {
+                    if (x >= newMinX && x < newMinX + span) {
+                        relX = Math.max(relX, newMinX + span - minX - 1);
+                        continue;
+                    }
+                }
+
+                listener.chunkLeft(x, z);
+                listener.chunkEntered(
+                        newMinX + Math.floorMod(x - newMinX, span),
+                        newMinZ + Math.floorMod(z - newMinZ, span)
+                );
+            }
+        }
+    }
+
+    private boolean contains(int x, int z, int chunkX, int chunkZ) {
+        int offsX = x - chunkX;
+        int offsZ = z - chunkZ;
+
+        return -this.radius <= offsX && offsX < this.radius
+                && -this.radius <= offsZ && offsZ < this.radius;
+    }
+}
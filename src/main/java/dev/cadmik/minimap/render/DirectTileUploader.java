@@ -0,0 +1,79 @@
+package dev.cadmik.minimap.render;
+
+import dev.cadmik.minimap.stats.Stats;
+import net.minecraft.client.renderer.GLAllocation;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+
+import java.nio.IntBuffer;
+
+/**
+ * A tile uploader that uploads straight from client memory, which is
+ * supported everywhere, but has the driver copy the pixels synchronously.
+ */
+final class DirectTileUploader implements TileUploader {
+    private final IntBuffer buffer;
+
+    /**
+     * Creates an uploader for the specified maximum upload size.
+     *
+     * @param capacity Maximum number of pixels per upload.
+     */
+    DirectTileUploader(int capacity) {
+        this.buffer = GLAllocation.createDirectIntBuffer(capacity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int reserve(int size) {
+        if (size > this.buffer.capacity()) {
+            throw new IllegalArgumentException("Upload of " + size + " pixels exceeds capacity.");
+        }
+
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IntBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void upload(int base, int x, int y, int width, int height) {
+        this.buffer.limit(base + width * height).position(base);
+
+        GL11.glTexSubImage2D(
+                GL11.GL_TEXTURE_2D, 0,
+                x, y, width, height,
+                GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV,
+                this.buffer
+        );
+
+        this.buffer.clear();
+
+        Stats.UPLOADS.increment();
+        Stats.UPLOAD_BYTES.add((long) width * height << 2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endFrame() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete() {
+    }
+}
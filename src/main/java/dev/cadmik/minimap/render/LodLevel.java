@@ -0,0 +1,280 @@
+package dev.cadmik.minimap.render;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A single level of the LodPyramid, whose 16x16 tiles each cover a square
+ * of {@code 2^scale} chunks per side.
+ *
+ * <p> A tile is occupied for as long as any of its four child tiles are, so
+ * every level only ever holds the tiles covering the rendering distance.
+ * The downsampled pixels of each tile are kept in memory, for the level
+ * above to downsample from in turn.
+ */
+final class LodLevel implements TileLayer {
+    private final int scale;
+
+    private final ChunkSlotIndex slotIndex;
+    private final int[] tileX, tileZ;
+    private final int[] childCounts;
+    private final int[][] pixels;
+
+    /**
+     * Tiles holding uploaded pixels, and tiles whose pixels are outdated.
+     */
+    private final BitSet readyTiles;
+    private final BitSet dirtyTiles;
+
+    private final TexturePages pages;
+
+    private int generation;
+
+    /**
+     * Creates a level, allocating its texture pages.
+     *
+     * @param scale    Number of chunks per tile side, in log-base-2
+     *                 representation.
+     * @param capacity Number of tile slots.
+     */
+    LodLevel(int scale, int capacity) {
+        this.scale = scale;
+
+        this.slotIndex = new ChunkSlotIndex(capacity);
+        this.tileX = new int[capacity];
+        this.tileZ = new int[capacity];
+        this.childCounts = new int[capacity];
+        this.pixels = new int[capacity][256];
+
+        this.readyTiles = new BitSet(capacity);
+        this.dirtyTiles = new BitSet(capacity);
+
+        this.pages = new TexturePages(capacity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getScale() {
+        return this.scale;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    @Override
+    public int getPageCount() {
+        return this.pages.getPageCount();
+    }
+
+    @Override
+    public int getPage(int offset) {
+        return this.pages.getPage(offset);
+    }
+
+    @Override
+    public int getTextureHandle(int page) {
+        return this.pages.getTextureHandle(page);
+    }
+
+    @Override
+    public double getSpriteX(int offset) {
+        return this.pages.getSpriteX(offset);
+    }
+
+    @Override
+    public double getSpriteY(int offset) {
+        return this.pages.getSpriteY(offset);
+    }
+
+    @Override
+    public double getSpriteWidth() {
+        return this.pages.getSpriteWidth();
+    }
+
+    @Override
+    public double getSpriteHeight() {
+        return this.pages.getSpriteHeight();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachTile(ChunkTileVisitor visitor) {
+        for (int slot = this.readyTiles.nextSetBit(0); slot >= 0; slot = this.readyTiles.nextSetBit(slot + 1)) {
+            visitor.visit(this.tileX[slot], this.tileZ[slot], slot);
+        }
+    }
+
+    /**
+     * Returns the slot of the specified tile.
+     *
+     * @param x Tile's X coordinate.
+     * @param z Tile's Z coordinate.
+     * @return Slot of occupied tile, {@code -1} otherwise.
+     */
+    int find(int x, int z) {
+        return this.slotIndex.get(x, z);
+    }
+
+    int[] getPixels(int slot) {
+        return this.pixels[slot];
+    }
+
+    int getTileX(int slot) {
+        return this.tileX[slot];
+    }
+
+    int getTileZ(int slot) {
+        return this.tileZ[slot];
+    }
+
+    /**
+     * Counts a newly occupied child of the specified tile, occupying the tile
+     * first if needed, and marks it outdated.
+     *
+     * @param x Tile's X coordinate.
+     * @param z Tile's Z coordinate.
+     * @return {@code true} iff the tile was newly occupied.
+     */
+    boolean addChild(int x, int z) {
+        int slot = this.slotIndex.get(x, z);
+        boolean added = slot == -1;
+
+        if (added) {
+            slot = this.slotIndex.reserve(x, z);
+            if (slot == -1) {
+                return false;
+            }
+
+            this.tileX[slot] = x;
+            this.tileZ[slot] = z;
+            this.childCounts[slot] = 0;
+            Arrays.fill(this.pixels[slot], 0);
+        }
+
+        this.childCounts[slot]++;
+        this.dirtyTiles.set(slot);
+
+        return added;
+    }
+
+    /**
+     * Counts every occupied tile of the level below as a child, occupying
+     * and marking outdated the tiles covering them.
+     *
+     * @param below Level below this one.
+     */
+    void addChildren(LodLevel below) {
+        for (int slot = 0; slot < below.childCounts.length; slot++) {
+            if (below.childCounts[slot] > 0) {
+                this.addChild(below.tileX[slot] >> 1, below.tileZ[slot] >> 1);
+            }
+        }
+    }
+
+    /**
+     * Uncounts a vacated child of the specified tile, vacating the tile too
+     * once it has no children left. Otherwise, marks it outdated.
+     *
+     * @param x Tile's X coordinate.
+     * @param z Tile's Z coordinate.
+     * @return {@code true} iff the tile was vacated.
+     */
+    boolean removeChild(int x, int z) {
+        int slot = this.slotIndex.get(x, z);
+        if (slot == -1) {
+            return false;
+        }
+
+        if (--this.childCounts[slot] > 0) {
+            this.dirtyTiles.set(slot);
+            return false;
+        }
+
+        this.slotIndex.release(x, z);
+        this.dirtyTiles.clear(slot);
+
+        if (this.readyTiles.get(slot)) {
+            this.readyTiles.clear(slot);
+            this.generation++;
+        }
+
+        return true;
+    }
+
+    /**
+     * Marks the specified tile outdated, if occupied.
+     *
+     * @param x Tile's X coordinate.
+     * @param z Tile's Z coordinate.
+     */
+    void invalidate(int x, int z) {
+        int slot = this.slotIndex.get(x, z);
+        if (slot != -1) {
+            this.dirtyTiles.set(slot);
+        }
+    }
+
+    /**
+     * Returns the first outdated tile at or after the specified slot.
+     *
+     * @param from Slot to start searching at.
+     * @return Slot of outdated tile, {@code -1} if there's none.
+     */
+    int nextDirty(int from) {
+        return this.dirtyTiles.nextSetBit(from);
+    }
+
+    /**
+     * Uploads the pixels of the specified tile, and marks it as up to date.
+     *
+     * @param slot     Slot of tile.
+     * @param uploader Upload backend.
+     */
+    void upload(int slot, TileUploader uploader) {
+        int base = uploader.reserve(256);
+        IntBuffer buffer = uploader.getBuffer();
+
+        int[] pixels = this.pixels[slot];
+        for (int i = 0; i < 256; i++) {
+            buffer.put(base + i, pixels[i]);
+        }
+
+        this.pages.bind(slot);
+        uploader.upload(base, this.pages.getPixelX(slot), this.pages.getPixelY(slot), 16, 16);
+
+        this.dirtyTiles.clear(slot);
+
+        if (!this.readyTiles.get(slot)) {
+            this.readyTiles.set(slot);
+            this.generation++;
+        }
+    }
+
+    /**
+     * Vacates all tiles.
+     */
+    void clear() {
+        this.slotIndex.clear();
+        Arrays.fill(this.childCounts, 0);
+        this.readyTiles.clear();
+        this.dirtyTiles.clear();
+        this.generation++;
+    }
+
+    /**
+     * Deletes the texture pages. The level mustn't be used afterwards.
+     */
+    void delete() {
+        this.pages.delete();
+    }
+}
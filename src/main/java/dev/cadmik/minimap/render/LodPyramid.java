@@ -0,0 +1,284 @@
+package dev.cadmik.minimap.render;
+
+import java.util.Arrays;
+
+/**
+ * The level-of-detail pyramid above the ChunkAtlas, for zoomed-out maps.
+ *
+ * <p> Level {@code N} stores {@code 2^N x 2^N} chunks downsampled into a
+ * single 16x16 tile, up to the level whose tiles span the whole rendering
+ * distance, or the coarsest level the zoom calls for, whichever is lower.
+ * Levels are added and deleted at the top as the zoom changes.
+ * Whichever level matches the zoom is drawn, so the number of tiles drawn
+ * stays about the same, whatever area is shown.
+ *
+ * <p> The pyramid is updated incrementally. Whenever a chunk tile is
+ * uploaded or unbound, only its parent tile is marked outdated. Outdated
+ * tiles are downsampled again from their four children, which in turn marks
+ * their own parent outdated, and so on up to the top.
+ *
+ * <p> Pixels of unknown chunks are left fully transparent, while any other
+ * pixel is fully opaque, so that unknown areas can be alpha tested away.
+ */
+final class LodPyramid {
+    /**
+     * The levels above the chunk tiles, starting at level {@code 1}.
+     */
+    private LodLevel[] levels = new LodLevel[0];
+
+    private final int chunkRadius;
+    private final int extraChunks;
+
+    private final int[] chunkPixels = new int[256];
+
+    /**
+     * Creates a pyramid without any levels for the specified chunk viewing
+     * radius.
+     *
+     * @param chunkRadius Chunk viewing radius.
+     * @param extraChunks Number of chunk tiles that may lie outside of the
+     *                    window, each of which occupies at most one more tile
+     *                    per level.
+     * @see #setLevelCount(int)
+     */
+    LodPyramid(int chunkRadius, int extraChunks) {
+        this.chunkRadius = chunkRadius;
+        this.extraChunks = extraChunks;
+    }
+
+    /**
+     * Adds or deletes levels at the top of the pyramid, up to the level
+     * whose tiles span the whole rendering distance, as levels coarser than
+     * the zoom calls for are never drawn. The levels below are kept as-is.
+     *
+     * <p> Added levels are occupied from the level below, and filled in by
+     * the following updates. The first level is left empty, and must be
+     * occupied through {@code LodPyramid::chunkAdded}.
+     *
+     * @param count Number of levels.
+     */
+    void setLevelCount(int count) {
+        count = Math.min(count, getMaxLevelCount(this.chunkRadius));
+        int oldCount = this.levels.length;
+
+        for (int i = count; i < oldCount; i++) {
+            this.levels[i].delete();
+        }
+
+        this.levels = Arrays.copyOf(this.levels, count);
+
+        int span = this.chunkRadius << 1;
+        for (int i = oldCount; i < count; i++) {
+            int scale = i + 1;
+
+            // A window of the given span covers this many tiles per side,
+            // however it's aligned.
+            int side = ((span - 1) >> scale) + 2;
+            this.levels[i] = new LodLevel(scale, side * side + this.extraChunks);
+
+            if (i > 0) {
+                this.levels[i].addChildren(this.levels[i - 1]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of levels up to the one whose tiles span the whole
+     * rendering distance.
+     *
+     * @param chunkRadius Chunk viewing radius.
+     * @return Maximum number of levels.
+     */
+    static int getMaxLevelCount(int chunkRadius) {
+        return 32 - Integer.numberOfLeadingZeros((chunkRadius << 1) - 1);
+    }
+
+    /**
+     * Returns the number of levels above the chunk tiles.
+     *
+     * @return Number of levels.
+     */
+    int getLevelCount() {
+        return this.levels.length;
+    }
+
+    /**
+     * Returns the specified level.
+     *
+     * @param level Level, from {@code 1} to {@code getLevelCount()}.
+     * @return Tile layer of the level.
+     */
+    TileLayer getLevel(int level) {
+        return this.levels[level - 1];
+    }
+
+    /**
+     * Accounts for a chunk tile that was uploaded for the first time.
+     *
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     */
+    void chunkAdded(int chunkX, int chunkZ) {
+        for (int i = 0; i < this.levels.length; i++) {
+            chunkX >>= 1;
+            chunkZ >>= 1;
+
+            if (!this.levels[i].addChild(chunkX, chunkZ)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Accounts for a chunk tile that was uploaded again.
+     *
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     */
+    void chunkChanged(int chunkX, int chunkZ) {
+        if (this.levels.length > 0) {
+            this.levels[0].invalidate(chunkX >> 1, chunkZ >> 1);
+        }
+    }
+
+    /**
+     * Accounts for an uploaded chunk tile that was unbound.
+     *
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     */
+    void chunkRemoved(int chunkX, int chunkZ) {
+        for (int i = 0; i < this.levels.length; i++) {
+            chunkX >>= 1;
+            chunkZ >>= 1;
+
+            if (!this.levels[i].removeChild(chunkX, chunkZ)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Downsamples and uploads outdated tiles, lowest level first, until
+     * either the deadline passes or the tile budget runs out. Tiles left over
+     * stay outdated for the next frame.
+     *
+     * @param source   Source of chunk tile colors.
+     * @param uploader Upload backend.
+     * @param deadline Time to stop at, as per {@code System::nanoTime}.
+     * @param maxTiles Maximum number of tiles to upload.
+     * @return Number of uploaded tiles.
+     */
+    int update(TileSource source, TileUploader uploader, long deadline, int maxTiles) {
+        int count = 0;
+
+        for (int i = 0; i < this.levels.length; i++) {
+            LodLevel level = this.levels[i];
+
+            for (int slot = level.nextDirty(0); slot >= 0; slot = level.nextDirty(slot + 1)) {
+                if (count == maxTiles || System.nanoTime() >= deadline) {
+                    return count;
+                }
+
+                this.downsample(source, i, slot);
+                level.upload(slot, uploader);
+                count++;
+
+                if (i + 1 < this.levels.length) {
+                    this.levels[i + 1].invalidate(level.getTileX(slot) >> 1, level.getTileZ(slot) >> 1);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Vacates all tiles of every level.
+     */
+    void clear() {
+        for (LodLevel level : this.levels) {
+            level.clear();
+        }
+    }
+
+    /**
+     * Deletes the texture pages of every level. The pyramid mustn't be used
+     * afterwards.
+     */
+    void delete() {
+        for (LodLevel level : this.levels) {
+            level.delete();
+        }
+    }
+
+    /**
+     * Downsamples the four children of the specified tile into its pixels,
+     * one quadrant per child.
+     *
+     * @param source Source of chunk tile colors.
+     * @param i      Index of the tile's level.
+     * @param slot   Slot of tile.
+     */
+    private void downsample(TileSource source, int i, int slot) {
+        LodLevel level = this.levels[i];
+        int[] pixels = level.getPixels(slot);
+
+        int tileX = level.getTileX(slot);
+        int tileZ = level.getTileZ(slot);
+
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            int dx = quadrant & 1;
+            int dz = quadrant >> 1;
+            int childX = tileX << 1 | dx;
+            int childZ = tileZ << 1 | dz;
+
+            int[] src = null;
+            if (i == 0) {
+                if (source.sample(childX, childZ, this.chunkPixels)) {
+                    src = this.chunkPixels;
+
+                    // Any chunk color is known, void included.
+                    for (int j = 0; j < 256; j++) {
+                        src[j] |= 0xff000000;
+                    }
+                }
+            } else {
+                int childSlot = this.levels[i - 1].find(childX, childZ);
+                if (childSlot != -1) {
+                    src = this.levels[i - 1].getPixels(childSlot);
+                }
+            }
+
+            int dst = dz << 7 | dx << 3;
+            for (int z = 0; z < 8; z++) {
+                for (int x = 0; x < 8; x++) {
+                    pixels[dst + (z << 4 | x)] = src == null ? 0 : average(src, z << 5 | x << 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Averages a 2x2 block of pixels, ignoring unknown ones.
+     *
+     * @param src  Source pixels, 16 per row.
+     * @param offs Index of top-left pixel.
+     * @return Averaged opaque pixel, {@code 0} if all four are unknown.
+     */
+    private static int average(int[] src, int offs) {
+        int r = 0, g = 0, b = 0, n = 0;
+
+        for (int i = 0; i < 4; i++) {
+            int p = src[offs + ((i >> 1) << 4 | i & 1)];
+            if (p != 0) {
+                r += p >> 16 & 0xff;
+                g += p >> 8 & 0xff;
+                b += p & 0xff;
+                n++;
+            }
+        }
+
+        return n == 0 ? 0 : 0xff000000 | r / n << 16 | g / n << 8 | b / n;
+    }
+}
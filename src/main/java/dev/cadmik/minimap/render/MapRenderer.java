@@ -1,14 +1,21 @@
 package dev.cadmik.minimap.render;
 
+import dev.cadmik.minimap.event.DirtyChunkSet;
+import dev.cadmik.minimap.render.proc.CachedRenderProc;
 import dev.cadmik.minimap.render.proc.MapRenderProc;
 import dev.cadmik.minimap.render.proc.ScissorRenderProc;
 import dev.cadmik.minimap.render.proc.StencilRenderProc;
+import dev.cadmik.minimap.stats.Stats;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.ScaledResolution;
+import net.minecraft.client.settings.KeyBinding;
 import net.minecraft.client.shader.Framebuffer;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.fml.client.registry.ClientRegistry;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.InputEvent;
+import org.lwjgl.input.Keyboard;
 
 /**
  * The singleton minimap renderer. Actual rendering is delegated to
@@ -22,23 +29,101 @@ import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
  * Well, I'm glad I wrote a fallback!
  */
 public class MapRenderer {
+    /**
+     * Time spent uploading colorized chunk tiles per frame, in nanoseconds,
+     * and the maximum number of chunk tiles uploaded per frame.
+     */
+    private static final long UPLOAD_BUDGET_NANOS = 2_000_000;
+    private static final int UPLOAD_BUDGET_TILES = 128;
+
+    /**
+     * The minimum chunk rendering distance. Above it, the atlas covers the
+     * minimap's viewing distance, up to the game's render distance, so weak
+     * clients running at a short render distance don't bind chunks that were
+     * never loaded.
+     */
+    private static final int MIN_CHUNK_RADIUS = 2;
+
+    /**
+     * The maximum chunk rendering distance, however far the minimap is
+     * zoomed out. Configurable with {@code -Dminimap.maxChunkRadius}.
+     *
+     * <p> The levels of detail are downsampled from full-resolution chunk
+     * tiles, so they only keep the number of tiles drawn constant. Every
+     * chunk shown is still colorized and uploaded once, and zooming out by a
+     * factor of {@code k} costs up to {@code k^2} as many chunk tiles, until
+     * this bound or the game's render distance is reached. Beyond it, the
+     * window's edge is left blank.
+     */
+    private static final int MAX_CHUNK_RADIUS = Math.max(MIN_CHUNK_RADIUS, Integer.getInteger(
+            "minimap.maxChunkRadius", 16
+    ));
+
+    /**
+     * The maximum number of blocks per (scaled) screen pixel. Every zoom
+     * step halves or doubles it.
+     */
+    private static final double MAX_ZOOM = 8;
+
+    /**
+     * Player movement (in blocks) and rotation (in degrees) below which the
+     * cached minimap is reused as-is.
+     */
+    private static final double CACHE_MOVE_THRESHOLD = 0.25;
+    private static final double CACHE_YAW_EPSILON = 0.5;
+
     private static final MapRenderer instance = new MapRenderer();
 
     private final MapRenderProc proc;
 
+    private final KeyBinding zoomInKey = new KeyBinding("key.minimap.zoomIn", Keyboard.KEY_EQUALS, "key.categories.minimap");
+    private final KeyBinding zoomOutKey = new KeyBinding("key.minimap.zoomOut", Keyboard.KEY_MINUS, "key.categories.minimap");
+
     public static MapRenderer getInstance() {
         return instance;
     }
 
     private MapRenderer() {
         Framebuffer fb = Minecraft.getMinecraft().getFramebuffer();
+        MapRenderProc proc;
 
         if (fb.isStencilEnabled() || fb.enableStencil()) {
-            this.proc = new StencilRenderProc();
+            proc = new StencilRenderProc();
         } else {
             // Overkill? Almost definitely. But now I can say that this
             // mod will work even if the stencil buffer *isn't* enabled.
-            this.proc = new ScissorRenderProc();
+            proc = new ScissorRenderProc();
+        }
+
+        this.proc = new CachedRenderProc(proc, CACHE_MOVE_THRESHOLD, CACHE_YAW_EPSILON);
+
+        ClientRegistry.registerKeyBinding(this.zoomInKey);
+        ClientRegistry.registerKeyBinding(this.zoomOutKey);
+    }
+
+    /**
+     * Sets the number of blocks per (scaled) screen pixel of the minimap.
+     *
+     * @param zoom Number of blocks per screen pixel, {@code 1} by default.
+     */
+    public void setZoom(double zoom) {
+        this.proc.setZoom(zoom);
+    }
+
+    @SubscribeEvent
+    public void keyPressed(InputEvent.KeyInputEvent e) {
+        double zoom = this.proc.getZoom();
+
+        if (this.zoomInKey.isPressed()) {
+            zoom = Math.max(1, zoom / 2);
+        }
+
+        if (this.zoomOutKey.isPressed()) {
+            zoom = Math.min(MAX_ZOOM, zoom * 2);
+        }
+
+        if (zoom != this.proc.getZoom()) {
+            this.setZoom(zoom);
         }
     }
 
@@ -57,10 +142,45 @@ public class MapRenderer {
         double yaw = lerp(p.prevRotationYaw, p.rotationYaw, e.partialTicks);
 
         // Ensure maximal chunk binding.
-        ChunkAtlas.getInstance().loadChunks((int) x >> 4, (int) z >> 4);
+        DirtyChunkSet.getInstance().flush();
+
+        ChunkAtlas atlas = this.updateAtlas();
+        atlas.loadChunks((int) x >> 4, (int) z >> 4);
+        atlas.uploadTiles(UPLOAD_BUDGET_NANOS, UPLOAD_BUDGET_TILES);
 
         ScaledResolution res = new ScaledResolution(Minecraft.getMinecraft());
+
+        long start = Stats.RENDER.start();
         this.proc.render(res.getScaledWidth() - 100, 100, x, z, yaw);
+        Stats.RENDER.stop(start);
+    }
+
+    /**
+     * Reconfigures the ChunkAtlas if the zoom or the game's render distance
+     * changed since the previous frame, and keeps as many levels of detail as
+     * the zoom draws from.
+     *
+     * @return Current ChunkAtlas.
+     */
+    private ChunkAtlas updateAtlas() {
+        // One more chunk than the view covers, as the player can stand
+        // anywhere within the central chunk.
+        int viewRadius = (int) Math.ceil(this.proc.getViewDistance() / 16) + 1;
+        int renderDistance = Minecraft.getMinecraft().gameSettings.renderDistanceChunks;
+        int radius = Math.max(MIN_CHUNK_RADIUS, Math.min(Math.min(viewRadius, renderDistance), MAX_CHUNK_RADIUS));
+
+        if (radius != ChunkAtlas.getInstance().getChunkRadius()) {
+            ChunkAtlas.reconfigure(radius);
+        }
+
+        // Level N is drawn from 2^N blocks per pixel on.
+        double zoom = this.proc.getZoom();
+        int levels = zoom < 2 ? 0 : 31 - Integer.numberOfLeadingZeros((int) zoom);
+
+        ChunkAtlas atlas = ChunkAtlas.getInstance();
+        atlas.setLodLevels(levels);
+
+        return atlas;
     }
 
     private static double lerp(double prev, double current, float partialTicks) {
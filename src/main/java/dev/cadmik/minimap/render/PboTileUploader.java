@@ -0,0 +1,179 @@
+package dev.cadmik.minimap.render;
+
+import dev.cadmik.minimap.stats.Stats;
+import org.lwjgl.opengl.ContextCapabilities;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL44;
+import org.lwjgl.opengl.GLContext;
+import org.lwjgl.opengl.GLSync;
+
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * A tile uploader that streams pixels through a persistently mapped pixel
+ * buffer object, so that {@code glTexSubImage2D} reads from GPU-visible
+ * memory, rather than having the driver copy from client memory first.
+ *
+ * <p> The buffer is split into a ring of segments. Writes fill the current
+ * segment, which is fenced and left behind at the end of each frame, or
+ * once it's full. A segment is only written again after the GPU signals
+ * its fence, which normally happened frames ago.
+ */
+final class PboTileUploader implements TileUploader {
+    private static final int SEGMENTS = 3;
+
+    private static final int FLAGS =
+            GL30.GL_MAP_WRITE_BIT | GL44.GL_MAP_PERSISTENT_BIT | GL44.GL_MAP_COHERENT_BIT;
+
+    /**
+     * How long to wait for a segment's fence per attempt, in nanoseconds.
+     */
+    private static final long FENCE_TIMEOUT = 1_000_000;
+
+    private final int pbo;
+    private final IntBuffer buffer;
+    private final int segmentCapacity;
+    private final GLSync[] fences = new GLSync[SEGMENTS];
+
+    private int segment;
+    private int cursor;
+
+    /**
+     * Creates an uploader, allocating and mapping its pixel buffer object.
+     * Requires {@code PboTileUploader::isSupported}.
+     *
+     * @param capacity Number of pixels per segment, and thus the maximum
+     *                 number of pixels per upload.
+     */
+    PboTileUploader(int capacity) {
+        this.segmentCapacity = capacity;
+
+        long size = (long) capacity * SEGMENTS << 2;
+
+        this.pbo = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, this.pbo);
+        GL44.glBufferStorage(GL21.GL_PIXEL_UNPACK_BUFFER, size, FLAGS);
+
+        this.buffer = GL30.glMapBufferRange(GL21.GL_PIXEL_UNPACK_BUFFER, 0, size, FLAGS, null)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+    }
+
+    /**
+     * Determines whether the current context supports persistently mapped
+     * buffers, along with everything else this uploader needs.
+     *
+     * @return {@code true} iff the uploader is supported.
+     */
+    static boolean isSupported() {
+        ContextCapabilities caps = GLContext.getCapabilities();
+        return caps.OpenGL44;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int reserve(int size) {
+        if (size > this.segmentCapacity) {
+            throw new IllegalArgumentException("Upload of " + size + " pixels exceeds capacity.");
+        }
+
+        int end = (this.segment + 1) * this.segmentCapacity;
+        if (this.cursor + size > end) {
+            this.nextSegment();
+        }
+
+        int base = this.cursor;
+        this.cursor += size;
+
+        return base;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IntBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void upload(int base, int x, int y, int width, int height) {
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, this.pbo);
+
+        GL11.glTexSubImage2D(
+                GL11.GL_TEXTURE_2D, 0,
+                x, y, width, height,
+                GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV,
+                (long) base << 2
+        );
+
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+
+        Stats.UPLOADS.increment();
+        Stats.UPLOAD_BYTES.add((long) width * height << 2);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endFrame() {
+        if (this.cursor != this.segment * this.segmentCapacity) {
+            this.nextSegment();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            if (this.fences[i] != null) {
+                GL32.glDeleteSync(this.fences[i]);
+                this.fences[i] = null;
+            }
+        }
+
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, this.pbo);
+        GL15.glUnmapBuffer(GL21.GL_PIXEL_UNPACK_BUFFER);
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+
+        GL15.glDeleteBuffers(this.pbo);
+    }
+
+    /**
+     * Fences the current segment, and moves on to the next one, waiting for
+     * the GPU to finish reading it if needed.
+     */
+    private void nextSegment() {
+        this.fences[this.segment] = GL32.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        this.segment = (this.segment + 1) % SEGMENTS;
+
+        GLSync fence = this.fences[this.segment];
+        if (fence != null) {
+            int status;
+            do {
+                status = GL32.glClientWaitSync(fence, GL32.GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_TIMEOUT);
+            } while (status == GL32.GL_TIMEOUT_EXPIRED);
+
+            GL32.glDeleteSync(fence);
+            this.fences[this.segment] = null;
+        }
+
+        this.cursor = this.segment * this.segmentCapacity;
+    }
+}
@@ -0,0 +1,347 @@
+package dev.cadmik.minimap.render;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A full-resolution layer of region super-tiles, each holding the 32x32
+ * chunk tiles of a region in one contiguous 512x512 texture area.
+ *
+ * <p> Each region keeps a bitmap of its occupied chunk tiles. A region is
+ * bound with its first occupied chunk tile, drawn as a single quad for as
+ * long as any remain, and evicted once the last one is gone. Unoccupied
+ * chunk cells are fully transparent, so they can be alpha tested away.
+ *
+ * <p> Chunk tiles are copied into their region's cell as they're uploaded or
+ * unbound, spread over frames like the level-of-detail tiles.
+ */
+final class RegionLayer implements TileLayer {
+    /**
+     * The number of chunks per region side, in log-base-2 representation.
+     */
+    private static final int REGION_SPAN_L2 = 5;
+
+    /**
+     * The number of {@code long} words in a bitmap of the chunk cells of a
+     * region.
+     */
+    private static final int BITMAP_WORDS = 1 << (REGION_SPAN_L2 << 1) >> 6;
+
+    private final ChunkSlotIndex slotIndex;
+    private final int[] regionX, regionZ;
+
+    /**
+     * Per region, the bitmap of occupied chunk cells and their count, and the
+     * bitmap of chunk cells whose texels are outdated.
+     */
+    private final long[][] occupiedCells;
+    private final int[] occupiedCounts;
+    private final long[][] dirtyCells;
+
+    /**
+     * Regions with any occupied chunk cells, and regions with any outdated
+     * chunk cells.
+     */
+    private final BitSet occupiedRegions;
+    private final BitSet dirtyRegions;
+
+    private final TexturePages pages;
+    private final int[] chunkPixels = new int[256];
+
+    private int generation;
+
+    /**
+     * Creates a layer for the specified chunk viewing radius, allocating its
+     * texture pages.
+     *
+     * @param chunkRadius Chunk viewing radius.
+     */
+    RegionLayer(int chunkRadius) {
+        // A window covers this many regions per side, however it's aligned,
+        // plus room for regions still awaiting eviction.
+        int side = ((chunkRadius << 1) - 1 >> REGION_SPAN_L2) + 3;
+        int capacity = side * side;
+
+        this.slotIndex = new ChunkSlotIndex(capacity);
+        this.regionX = new int[capacity];
+        this.regionZ = new int[capacity];
+
+        this.occupiedCells = new long[capacity][BITMAP_WORDS];
+        this.occupiedCounts = new int[capacity];
+        this.dirtyCells = new long[capacity][BITMAP_WORDS];
+
+        this.occupiedRegions = new BitSet(capacity);
+        this.dirtyRegions = new BitSet(capacity);
+
+        this.pages = new TexturePages(capacity, REGION_SPAN_L2 + 4);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getScale() {
+        return REGION_SPAN_L2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    @Override
+    public int getPageCount() {
+        return this.pages.getPageCount();
+    }
+
+    @Override
+    public int getPage(int offset) {
+        return this.pages.getPage(offset);
+    }
+
+    @Override
+    public int getTextureHandle(int page) {
+        return this.pages.getTextureHandle(page);
+    }
+
+    @Override
+    public double getSpriteX(int offset) {
+        return this.pages.getSpriteX(offset);
+    }
+
+    @Override
+    public double getSpriteY(int offset) {
+        return this.pages.getSpriteY(offset);
+    }
+
+    @Override
+    public double getSpriteWidth() {
+        return this.pages.getSpriteWidth();
+    }
+
+    @Override
+    public double getSpriteHeight() {
+        return this.pages.getSpriteHeight();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forEachTile(ChunkTileVisitor visitor) {
+        for (int slot = this.occupiedRegions.nextSetBit(0); slot >= 0; slot = this.occupiedRegions.nextSetBit(slot + 1)) {
+            visitor.visit(this.regionX[slot], this.regionZ[slot], slot);
+        }
+    }
+
+    /**
+     * Occupies the cell of a chunk tile that was uploaded for the first time,
+     * binding its region first if needed.
+     *
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     */
+    void chunkAdded(int chunkX, int chunkZ) {
+        int x = chunkX >> REGION_SPAN_L2;
+        int z = chunkZ >> REGION_SPAN_L2;
+
+        int slot = this.slotIndex.get(x, z);
+        if (slot == -1) {
+            slot = this.slotIndex.reserve(x, z);
+            if (slot == -1) {
+                return;
+            }
+
+            this.regionX[slot] = x;
+            this.regionZ[slot] = z;
+            this.occupiedCounts[slot] = 0;
+            Arrays.fill(this.occupiedCells[slot], 0);
+            Arrays.fill(this.dirtyCells[slot], 0);
+        }
+
+        int cell = getCell(chunkX, chunkZ);
+        long bit = 1L << cell;
+        long[] occupied = this.occupiedCells[slot];
+
+        if ((occupied[cell >> 6] & bit) == 0) {
+            occupied[cell >> 6] |= bit;
+
+            if (this.occupiedCounts[slot]++ == 0) {
+                this.occupiedRegions.set(slot);
+                this.generation++;
+            }
+        }
+
+        this.invalidate(slot, cell);
+    }
+
+    /**
+     * Marks the cell of a chunk tile that was uploaded again outdated.
+     *
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     */
+    void chunkChanged(int chunkX, int chunkZ) {
+        int slot = this.slotIndex.get(chunkX >> REGION_SPAN_L2, chunkZ >> REGION_SPAN_L2);
+        if (slot != -1) {
+            this.invalidate(slot, getCell(chunkX, chunkZ));
+        }
+    }
+
+    /**
+     * Vacates the cell of an uploaded chunk tile that was unbound. The cell
+     * is cleared later on, after which its region is evicted if vacant.
+     *
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     */
+    void chunkRemoved(int chunkX, int chunkZ) {
+        int slot = this.slotIndex.get(chunkX >> REGION_SPAN_L2, chunkZ >> REGION_SPAN_L2);
+        if (slot == -1) {
+            return;
+        }
+
+        int cell = getCell(chunkX, chunkZ);
+        long bit = 1L << cell;
+        long[] occupied = this.occupiedCells[slot];
+
+        if ((occupied[cell >> 6] & bit) != 0) {
+            occupied[cell >> 6] &= ~bit;
+
+            if (--this.occupiedCounts[slot] == 0) {
+                this.occupiedRegions.clear(slot);
+                this.generation++;
+            }
+
+            this.invalidate(slot, cell);
+        }
+    }
+
+    /**
+     * Uploads outdated chunk cells, until either the deadline passes or the
+     * cell budget runs out. Cells left over stay outdated for the next frame.
+     * Vacant regions are evicted once all their cells are cleared.
+     *
+     * @param source   Source of chunk tile colors.
+     * @param uploader Upload backend.
+     * @param deadline Time to stop at, as per {@code System::nanoTime}.
+     * @param maxCells Maximum number of chunk cells to upload.
+     * @return Number of uploaded chunk cells.
+     */
+    int update(TileSource source, TileUploader uploader, long deadline, int maxCells) {
+        int count = 0;
+
+        for (int slot = this.dirtyRegions.nextSetBit(0); slot >= 0; slot = this.dirtyRegions.nextSetBit(slot + 1)) {
+            long[] dirty = this.dirtyCells[slot];
+
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                while (dirty[i] != 0) {
+                    if (count == maxCells || System.nanoTime() >= deadline) {
+                        return count;
+                    }
+
+                    int cell = i << 6 | Long.numberOfTrailingZeros(dirty[i]);
+                    dirty[i] &= dirty[i] - 1;
+
+                    this.uploadCell(source, uploader, slot, cell);
+                    count++;
+                }
+            }
+
+            this.dirtyRegions.clear(slot);
+
+            if (this.occupiedCounts[slot] == 0) {
+                this.slotIndex.release(this.regionX[slot], this.regionZ[slot]);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Vacates all chunk cells. Regions are evicted once their cells are
+     * cleared, as their texels are reused by the next regions bound.
+     */
+    void clear() {
+        for (int slot = this.occupiedRegions.nextSetBit(0); slot >= 0; slot = this.occupiedRegions.nextSetBit(slot + 1)) {
+            long[] occupied = this.occupiedCells[slot];
+            long[] dirty = this.dirtyCells[slot];
+
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                dirty[i] |= occupied[i];
+                occupied[i] = 0;
+            }
+
+            this.occupiedCounts[slot] = 0;
+            this.dirtyRegions.set(slot);
+        }
+
+        this.occupiedRegions.clear();
+        this.generation++;
+    }
+
+    /**
+     * Deletes the texture pages. The layer mustn't be used afterwards.
+     */
+    void delete() {
+        this.pages.delete();
+    }
+
+    private void invalidate(int slot, int cell) {
+        this.dirtyCells[slot][cell >> 6] |= 1L << cell;
+        this.dirtyRegions.set(slot);
+    }
+
+    /**
+     * Uploads the colors of the chunk tile in the specified cell, or clears
+     * the cell if unoccupied.
+     *
+     * @param source   Source of chunk tile colors.
+     * @param uploader Upload backend.
+     * @param slot     Slot of region.
+     * @param cell     Chunk cell within region.
+     */
+    private void uploadCell(TileSource source, TileUploader uploader, int slot, int cell) {
+        int cellX = cell & (1 << REGION_SPAN_L2) - 1;
+        int cellZ = cell >> REGION_SPAN_L2;
+
+        boolean occupied = (this.occupiedCells[slot][cell >> 6] & 1L << cell) != 0;
+        boolean known = occupied && source.sample(
+                this.regionX[slot] << REGION_SPAN_L2 | cellX,
+                this.regionZ[slot] << REGION_SPAN_L2 | cellZ,
+                this.chunkPixels
+        );
+
+        int base = uploader.reserve(256);
+        IntBuffer buffer = uploader.getBuffer();
+
+        // Any chunk color is known, void included.
+        for (int i = 0; i < 256; i++) {
+            buffer.put(base + i, known ? this.chunkPixels[i] | 0xff000000 : 0);
+        }
+
+        this.pages.bind(slot);
+        uploader.upload(
+                base,
+                this.pages.getPixelX(slot) + (cellX << 4),
+                this.pages.getPixelY(slot) + (cellZ << 4),
+                16, 16
+        );
+    }
+
+    /**
+     * Returns the cell of the specified chunk within its region.
+     *
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     * @return Chunk cell, row by row.
+     */
+    private static int getCell(int chunkX, int chunkZ) {
+        int mask = (1 << REGION_SPAN_L2) - 1;
+        return (chunkZ & mask) << REGION_SPAN_L2 | chunkX & mask;
+    }
+}
@@ -0,0 +1,124 @@
+package dev.cadmik.minimap.render;
+
+import java.util.Arrays;
+
+/**
+ * The ChunkAtlas slots of chunk tiles retained outside the window, in least
+ * recently used order.
+ *
+ * <p> Slots are linked into a doubly linked list through a pair of arrays,
+ * so adding, removing and evicting slots all run in constant time without
+ * allocating.
+ */
+final class RetainedSlots {
+    /**
+     * Marks the end of the list, and slots that aren't retained.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Marks a retained slot without a more recently retained neighbour,
+     * telling it apart from slots that aren't retained.
+     */
+    private static final int TAIL = -2;
+
+    private final int[] prev, next;
+    private int head = NONE, tail = NONE;
+    private int size;
+
+    /**
+     * Creates an empty list for the specified number of atlas slots.
+     *
+     * @param capacity Number of atlas slots.
+     */
+    RetainedSlots(int capacity) {
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        this.clear();
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    boolean contains(int offs) {
+        return this.next[offs] != NONE;
+    }
+
+    /**
+     * Retains the specified slot as the most recently used one.
+     *
+     * @param offs Texture atlas offset of chunk tile.
+     */
+    void add(int offs) {
+        this.remove(offs);
+
+        this.prev[offs] = this.tail;
+        this.next[offs] = TAIL;
+
+        if (this.tail == NONE) {
+            this.head = offs;
+        } else {
+            this.next[this.tail] = offs;
+        }
+
+        this.tail = offs;
+        this.size++;
+    }
+
+    /**
+     * Stops retaining the specified slot, if retained.
+     *
+     * @param offs Texture atlas offset of chunk tile.
+     * @return {@code true} iff the slot was retained.
+     */
+    boolean remove(int offs) {
+        if (!this.contains(offs)) {
+            return false;
+        }
+
+        int prev = this.prev[offs];
+        int next = this.next[offs] == TAIL ? NONE : this.next[offs];
+
+        if (prev == NONE) {
+            this.head = next;
+        } else {
+            this.next[prev] = next == NONE ? TAIL : next;
+        }
+
+        if (next == NONE) {
+            this.tail = prev;
+        } else {
+            this.prev[next] = prev;
+        }
+
+        this.next[offs] = NONE;
+        this.size--;
+
+        return true;
+    }
+
+    /**
+     * Removes and returns the least recently used slot.
+     *
+     * @return Least recently used slot, {@code -1} if none are retained.
+     */
+    int poll() {
+        int offs = this.head;
+        if (offs != NONE) {
+            this.remove(offs);
+        }
+
+        return offs;
+    }
+
+    /**
+     * Stops retaining all slots.
+     */
+    void clear() {
+        Arrays.fill(this.next, NONE);
+        this.head = NONE;
+        this.tail = NONE;
+        this.size = 0;
+    }
+}
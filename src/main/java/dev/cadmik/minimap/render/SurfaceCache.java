@@ -0,0 +1,129 @@
+package dev.cadmik.minimap.render;
+
+import dev.cadmik.minimap.render.color.ChunkColorizer;
+import dev.cadmik.minimap.render.color.ChunkSurface;
+import dev.cadmik.minimap.render.color.ColumnScanner;
+
+/**
+ * The column surface cache of every ChunkAtlas slot.
+ *
+ * <p> Each slot stores the packed scan result of its 256 columns, and the
+ * heights of the north chunk's southern edge. This is everything needed to
+ * recompute a column's color, so a single block update only needs to rescan
+ * the affected column.
+ */
+final class SurfaceCache {
+    private final int[] scans;
+    private final int[] northHeights;
+
+    /**
+     * The fingerprint of each slot's surface, computed on demand. Zero if
+     * the surface changed since it was last computed.
+     */
+    private final long[] fingerprints;
+
+    /**
+     * Creates a surface cache for the specified number of atlas slots.
+     *
+     * @param capacity Number of atlas slots.
+     */
+    SurfaceCache(int capacity) {
+        this.scans = new int[capacity << 8];
+        this.northHeights = new int[capacity << 4];
+        this.fingerprints = new long[capacity];
+    }
+
+    /**
+     * Replaces the cached surface of the specified slot.
+     *
+     * @param offs         Texture atlas offset of chunk tile.
+     * @param scans        Packed column scan results (256 entries).
+     * @param northHeights North edge heights (16 entries).
+     */
+    void store(int offs, int[] scans, int[] northHeights) {
+        System.arraycopy(scans, 0, this.scans, offs << 8, 256);
+        System.arraycopy(northHeights, 0, this.northHeights, offs << 4, 16);
+        this.fingerprints[offs] = 0;
+    }
+
+    /**
+     * Replaces the cached surface of the specified slot.
+     *
+     * @param offs    Texture atlas offset of chunk tile.
+     * @param surface Chunk surface.
+     */
+    void store(int offs, ChunkSurface surface) {
+        surface.copyScans(this.scans, offs << 8);
+        surface.copyNorthHeights(this.northHeights, offs << 4);
+        this.fingerprints[offs] = surface.getFingerprint();
+    }
+
+    /**
+     * Copies the cached surface of a slot of another cache.
+     *
+     * @param src     Cache to copy from.
+     * @param srcOffs Texture atlas offset of source chunk tile.
+     * @param offs    Texture atlas offset of chunk tile.
+     */
+    void copy(SurfaceCache src, int srcOffs, int offs) {
+        System.arraycopy(src.scans, srcOffs << 8, this.scans, offs << 8, 256);
+        System.arraycopy(src.northHeights, srcOffs << 4, this.northHeights, offs << 4, 16);
+        this.fingerprints[offs] = src.fingerprints[srcOffs];
+    }
+
+    /**
+     * Returns the fingerprint of the cached surface of the specified slot.
+     *
+     * @param offs Texture atlas offset of chunk tile.
+     * @return Fingerprint of cached surface.
+     * @see ChunkSurface#computeFingerprint(int[], int, int[], int)
+     */
+    long getFingerprint(int offs) {
+        long fingerprint = this.fingerprints[offs];
+
+        if (fingerprint == 0) {
+            fingerprint = ChunkSurface.computeFingerprint(this.scans, offs << 8, this.northHeights, offs << 4);
+            this.fingerprints[offs] = fingerprint;
+        }
+
+        return fingerprint;
+    }
+
+    int getScan(int offs, int x, int z) {
+        return this.scans[offs << 8 | z << 4 | x];
+    }
+
+    void setScan(int offs, int x, int z, int scan) {
+        this.scans[offs << 8 | z << 4 | x] = scan;
+        this.fingerprints[offs] = 0;
+    }
+
+    int getHeight(int offs, int x, int z) {
+        return ColumnScanner.getHeight(this.getScan(offs, x, z));
+    }
+
+    int getNorthHeight(int offs, int x) {
+        return this.northHeights[offs << 4 | x];
+    }
+
+    void setNorthHeight(int offs, int x, int height) {
+        this.northHeights[offs << 4 | x] = height;
+        this.fingerprints[offs] = 0;
+    }
+
+    /**
+     * Computes the color of the specified column from the cache.
+     *
+     * @param offs Texture atlas offset of chunk tile.
+     * @param x    Column's X coordinate within the chunk.
+     * @param z    Column's Z coordinate within the chunk.
+     * @return Column's RGB color.
+     */
+    int getColor(int offs, int x, int z) {
+        int northHeight = z == 0
+                ? this.getNorthHeight(offs, x)
+                : this.getHeight(offs, x, z - 1);
+
+        return ChunkColorizer.getColor(this.getScan(offs, x, z), northHeight, x, z);
+    }
+}
@@ -0,0 +1,193 @@
+package dev.cadmik.minimap.render;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GLAllocation;
+import net.minecraft.client.renderer.GlStateManager;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL43;
+
+import java.nio.IntBuffer;
+
+/**
+ * The texture pages backing a set of square tiles, addressed by offset.
+ *
+ * <p> Tiles are laid out in rows, and a page holds as many whole rows as
+ * fit into {@code GL_MAX_TEXTURE_SIZE}, as per the TileLayout.
+ *
+ * <p> Pages start out fully transparent.
+ */
+final class TexturePages {
+    private final TileLayout layout;
+
+    /**
+     * The normalized dimensions of a tile on its page.
+     */
+    private final double tileWidth, tileHeight;
+
+    private final int[] textures;
+
+    /**
+     * Allocates enough texture pages for the specified number of 16x16
+     * tiles.
+     *
+     * @param capacity Number of tiles.
+     */
+    TexturePages(int capacity) {
+        this(capacity, 4);
+    }
+
+    /**
+     * Allocates enough texture pages for the specified number of tiles.
+     *
+     * @param capacity   Number of tiles.
+     * @param tileSizeL2 Side length of a tile in pixels, in log-base-2
+     *                   representation.
+     */
+    TexturePages(int capacity, int tileSizeL2) {
+        this.layout = new TileLayout(capacity, tileSizeL2, Minecraft.getGLMaximumTextureSize());
+
+        int texWidth = this.layout.getTextureWidth();
+        int texHeight = this.layout.getTextureHeight();
+
+        this.tileWidth = (double) (1 << tileSizeL2) / texWidth;
+        this.tileHeight = (double) (1 << tileSizeL2) / texHeight;
+
+        // The initial contents of a texture are undefined, so they're
+        // cleared a strip at a time.
+        IntBuffer zeros = GLAllocation.createDirectIntBuffer(texWidth << 4);
+
+        this.textures = new int[this.layout.getPageCount()];
+        for (int page = 0; page < this.textures.length; page++) {
+            this.textures[page] = GL11.glGenTextures();
+            GlStateManager.bindTexture(this.textures[page]);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL12.GL_TEXTURE_MAX_LEVEL, 0);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+            GL11.glTexImage2D(
+                    GL11.GL_TEXTURE_2D, 0,
+                    GL11.GL_RGBA,
+                    texWidth, texHeight, 0,
+                    GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV,
+                    (IntBuffer) null
+            );
+
+            for (int y = 0; y < texHeight; y += 16) {
+                GL11.glTexSubImage2D(
+                        GL11.GL_TEXTURE_2D, 0,
+                        0, y, texWidth, 16,
+                        GL12.GL_BGRA, GL12.GL_UNSIGNED_INT_8_8_8_8_REV,
+                        zeros
+                );
+            }
+        }
+    }
+
+    /**
+     * Returns the layout of the tiles on the pages.
+     *
+     * @return Tile layout.
+     */
+    TileLayout getLayout() {
+        return this.layout;
+    }
+
+    int getPageCount() {
+        return this.textures.length;
+    }
+
+    int getPage(int offs) {
+        return this.layout.getPage(offs);
+    }
+
+    int getTextureHandle(int page) {
+        return this.textures[page];
+    }
+
+    /**
+     * @see TileLayout#isRowStart(int)
+     */
+    boolean isRowStart(int offs) {
+        return this.layout.isRowStart(offs);
+    }
+
+    /**
+     * @see TileLayout#getPixelX(int)
+     */
+    int getPixelX(int offs) {
+        return this.layout.getPixelX(offs);
+    }
+
+    /**
+     * @see TileLayout#getPixelY(int)
+     */
+    int getPixelY(int offs) {
+        return this.layout.getPixelY(offs);
+    }
+
+    /**
+     * @see TileLayout#getColumn(int)
+     */
+    int getColumn(int offs) {
+        return this.layout.getColumn(offs);
+    }
+
+    /**
+     * @see TileLayout#getRow(int)
+     */
+    int getRow(int offs) {
+        return this.layout.getRow(offs);
+    }
+
+    double getSpriteX(int offs) {
+        return this.getColumn(offs) * this.tileWidth;
+    }
+
+    double getSpriteY(int offs) {
+        return this.getRow(offs) * this.tileHeight;
+    }
+
+    double getSpriteWidth() {
+        return this.tileWidth;
+    }
+
+    double getSpriteHeight() {
+        return this.tileHeight;
+    }
+
+    /**
+     * Binds the page holding the specified tile.
+     *
+     * @param offs Tile offset.
+     */
+    void bind(int offs) {
+        GlStateManager.bindTexture(this.textures[this.getPage(offs)]);
+    }
+
+    /**
+     * Copies a tile from another set of pages of the same tile size on the
+     * GPU. Requires OpenGL 4.3.
+     *
+     * @param src     Source pages.
+     * @param srcOffs Offset of source tile.
+     * @param offs    Offset of destination tile.
+     */
+    void copy(TexturePages src, int srcOffs, int offs) {
+        GL43.glCopyImageSubData(
+                src.textures[src.getPage(srcOffs)], GL11.GL_TEXTURE_2D, 0,
+                src.getPixelX(srcOffs), src.getPixelY(srcOffs), 0,
+                this.textures[this.getPage(offs)], GL11.GL_TEXTURE_2D, 0,
+                this.getPixelX(offs), this.getPixelY(offs), 0,
+                this.layout.getTileSize(), this.layout.getTileSize(), 1
+        );
+    }
+
+    /**
+     * Deletes all pages. They mustn't be used afterwards.
+     */
+    void delete() {
+        for (int texture : this.textures) {
+            GlStateManager.deleteTexture(texture);
+        }
+    }
+}
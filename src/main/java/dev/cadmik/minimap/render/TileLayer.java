@@ -0,0 +1,48 @@
+package dev.cadmik.minimap.render;
+
+/**
+ * A set of map tiles on texture pages, drawable by a ChunkMesh.
+ *
+ * <p> Each tile covers a square of {@code 2^scale} chunks per side, so tile
+ * coordinates are chunk coordinates shifted right by the scale. The
+ * ChunkAtlas itself is the layer of scale {@code 0}.
+ */
+public interface TileLayer {
+    /**
+     * Returns the number of chunks per tile side, in log-base-2
+     * representation.
+     *
+     * @return Scale of the layer.
+     */
+    int getScale();
+
+    /**
+     * Returns the generation of the occupied tiles. Changes whenever a tile
+     * is occupied or vacated.
+     *
+     * @return Generation of occupied tiles.
+     */
+    int getGeneration();
+
+    int getPageCount();
+
+    int getPage(int offset);
+
+    int getTextureHandle(int page);
+
+    double getSpriteX(int offset);
+
+    double getSpriteY(int offset);
+
+    double getSpriteWidth();
+
+    double getSpriteHeight();
+
+    /**
+     * Visits all occupied tiles in one sweep, in offset order, so that each
+     * page's tiles are visited together.
+     *
+     * @param visitor Receiver of tile coordinates and offsets.
+     */
+    void forEachTile(ChunkTileVisitor visitor);
+}
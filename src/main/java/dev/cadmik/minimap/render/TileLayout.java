@@ -0,0 +1,153 @@
+package dev.cadmik.minimap.render;
+
+/**
+ * The layout of a set of square tiles on texture pages, addressed by offset.
+ *
+ * <p> Tiles are laid out in rows, and a page holds as many whole rows as
+ * fit into the maximum texture size. Whatever doesn't fit into a single
+ * texture spills over into further pages of the same dimensions, so a
+ * page's offsets are a contiguous range, and any row lies entirely within
+ * one page.
+ *
+ * <p> This is only the arithmetic, without any textures, so that it can be
+ * used without a GL context.
+ *
+ * @see TexturePages
+ */
+final class TileLayout {
+    /**
+     * The number of tiles per row and per page, in log-base-2
+     * representation.
+     *
+     * <p> The area of a page is a power-of-two, and so too will the page's
+     * width and height. Thus we can optimize any scaling by the page width
+     * into a shift.
+     */
+    private final int rowSlotsL2;
+    private final int pageSlotsL2;
+
+    /**
+     * The side length of a tile in pixels, in log-base-2 representation.
+     */
+    private final int tileSizeL2;
+
+    private final int textureWidth, textureHeight;
+    private final int pageCount;
+
+    /**
+     * Lays out the specified number of tiles.
+     *
+     * @param capacity       Number of tiles.
+     * @param tileSizeL2     Side length of a tile in pixels, in log-base-2
+     *                       representation.
+     * @param maxTextureSize Maximum width and height of a page, in pixels.
+     */
+    TileLayout(int capacity, int tileSizeL2, int maxTextureSize) {
+        /*
+         * Rounds texture area up to the next power-of-two.
+         * - Resolves visual artifacts from floating point imperfections.
+         *      - Might not be important in practice bc. of how small floats can be.
+         * - AFAIK, improves rendering performance.
+         *
+         * Also converts from tile space to pixel space, hence the extra shift.
+         */
+        int texWidth = Integer.highestOneBit(Math.max(capacity - 1, 1)) << tileSizeL2 + 1;
+        int texHeight = 1 << tileSizeL2;
+
+        while (texWidth > maxTextureSize) {
+            texWidth >>= 1;
+            texHeight <<= 1;
+        }
+
+        // On modern computers, this only happens for huge capacities, so
+        // most sets are a single page.
+        while (texHeight > maxTextureSize) {
+            texHeight >>= 1;
+        }
+
+        int pageSlots = texWidth * texHeight >> (tileSizeL2 << 1);
+
+        this.rowSlotsL2 = Integer.numberOfTrailingZeros(texWidth >> tileSizeL2);
+        this.pageSlotsL2 = Integer.numberOfTrailingZeros(pageSlots);
+        this.tileSizeL2 = tileSizeL2;
+
+        this.textureWidth = texWidth;
+        this.textureHeight = texHeight;
+        this.pageCount = (capacity + pageSlots - 1) / pageSlots;
+    }
+
+    int getTextureWidth() {
+        return this.textureWidth;
+    }
+
+    int getTextureHeight() {
+        return this.textureHeight;
+    }
+
+    int getPageCount() {
+        return this.pageCount;
+    }
+
+    int getPage(int offs) {
+        return offs >> this.pageSlotsL2;
+    }
+
+    /**
+     * Returns the side length of a tile.
+     *
+     * @return Side length of a tile, in pixels.
+     */
+    int getTileSize() {
+        return 1 << this.tileSizeL2;
+    }
+
+    /**
+     * Determines whether the specified offset starts a row.
+     *
+     * @param offs Tile offset.
+     * @return {@code true} iff the tile is the first of its row.
+     */
+    boolean isRowStart(int offs) {
+        return (offs & (1 << this.rowSlotsL2) - 1) == 0;
+    }
+
+    /**
+     * Returns the X coordinate of the tile's top-left pixel on its page.
+     *
+     * @param offs Tile offset.
+     * @return Tile's X coordinate, in pixels.
+     */
+    int getPixelX(int offs) {
+        return this.getColumn(offs) << this.tileSizeL2;
+    }
+
+    /**
+     * Returns the Y coordinate of the tile's top-left pixel on its page.
+     *
+     * @param offs Tile offset.
+     * @return Tile's Y coordinate, in pixels.
+     */
+    int getPixelY(int offs) {
+        return this.getRow(offs) << this.tileSizeL2;
+    }
+
+    /**
+     * Returns the tile's column on its page, in tiles.
+     *
+     * @param offs Tile offset.
+     * @return Tile's column.
+     */
+    int getColumn(int offs) {
+        return offs & (1 << this.rowSlotsL2) - 1;
+    }
+
+    /**
+     * Returns the tile's row on its page, in tiles.
+     *
+     * @param offs Tile offset.
+     * @return Tile's row.
+     */
+    int getRow(int offs) {
+        return (offs & (1 << this.pageSlotsL2) - 1) >> this.rowSlotsL2;
+    }
+}
@@ -0,0 +1,82 @@
+package dev.cadmik.minimap.render;
+
+import java.nio.IntBuffer;
+
+/**
+ * Batches uploads of 16x16 tiles into runs of tiles that are adjacent on the
+ * same row of their texture page, so that each run takes a single upload.
+ */
+final class TileRuns {
+    /**
+     * Supplies the pixels of the tiles in a run.
+     */
+    interface TilePixels {
+        /**
+         * Returns the pixels of the specified tile. Called once per tile, in
+         * order, right before its pixels are written.
+         *
+         * @param offs Tile offset.
+         * @return 16x16 pixels, row by row. May be reused between calls.
+         */
+        int[] get(int offs);
+    }
+
+    private TileRuns() {
+    }
+
+    /**
+     * Returns the length of the run starting at the specified index of a
+     * sorted array of tile offsets. A run only continues while the offsets
+     * are consecutive, and ends before any offset that starts a row, and
+     * with that, a page.
+     *
+     * @param offsets Tile offsets, sorted in ascending order.
+     * @param start   Index of the run's first offset.
+     * @param end     Index after the last offset to consider.
+     * @param layout  Layout of the tiles.
+     * @return Number of tiles in the run, at least {@code 1}.
+     */
+    static int getRunLength(int[] offsets, int start, int end, TileLayout layout) {
+        int first = offsets[start];
+        int length = 1;
+
+        while (start + length < end
+                && offsets[start + length] == first + length
+                && !layout.isRowStart(first + length)) {
+            length++;
+        }
+
+        return length;
+    }
+
+    /**
+     * Writes a run of tiles side by side into the uploader's staging buffer,
+     * and uploads them with a single call. The page holding the run must be
+     * bound already.
+     *
+     * @param uploader Upload backend.
+     * @param layout   Layout of the tiles.
+     * @param first    Offset of the run's leftmost tile.
+     * @param length   Number of tiles in the run.
+     * @param pixels   Supplier of the tiles' pixels.
+     */
+    static void upload(TileUploader uploader, TileLayout layout, int first, int length, TilePixels pixels) {
+        int width = length << 4;
+
+        int base = uploader.reserve(width << 4);
+        IntBuffer buffer = uploader.getBuffer();
+
+        for (int i = 0; i < length; i++) {
+            int[] tile = pixels.get(first + i);
+
+            for (int z = 0; z < 16; z++) {
+                int row = base + z * width + (i << 4);
+                for (int x = 0; x < 16; x++) {
+                    buffer.put(row + x, tile[z << 4 | x]);
+                }
+            }
+        }
+
+        uploader.upload(base, layout.getPixelX(first), layout.getPixelY(first), width, 16);
+    }
+}
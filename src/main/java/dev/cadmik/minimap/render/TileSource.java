@@ -0,0 +1,18 @@
+package dev.cadmik.minimap.render;
+
+/**
+ * Supplies the colors of uploaded chunk tiles to the layers derived from
+ * them.
+ */
+@FunctionalInterface
+interface TileSource {
+    /**
+     * Copies the colors of the specified chunk tile, if uploaded.
+     *
+     * @param chunkX Chunk's X coordinate.
+     * @param chunkZ Chunk's Z coordinate.
+     * @param pixels Destination of 16x16 colors, row by row.
+     * @return {@code true} iff the chunk tile is uploaded.
+     */
+    boolean sample(int chunkX, int chunkZ, int[] pixels);
+}
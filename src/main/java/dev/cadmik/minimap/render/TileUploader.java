@@ -0,0 +1,59 @@
+package dev.cadmik.minimap.render;
+
+import java.nio.IntBuffer;
+
+/**
+ * A backend for uploading pixels to the texture atlas.
+ *
+ * <p> Pixels are written directly into the uploader's own staging buffer,
+ * and then uploaded from there, so that no backend needs an extra copy.
+ * Writes and uploads must be made in pairs:
+ *
+ * <pre>{@code
+ * int base = uploader.reserve(width * height);
+ * IntBuffer buffer = uploader.getBuffer();
+ * // buffer.put(base + i, ...) for every pixel
+ * uploader.upload(base, x, y, width, height);
+ * }</pre>
+ *
+ * <p> Only to be used from the render thread.
+ */
+interface TileUploader {
+    /**
+     * Reserves room for the specified number of pixels in the staging buffer.
+     *
+     * @param size Number of pixels.
+     * @return Index in the staging buffer to write the pixels at.
+     * @throws IllegalArgumentException If the size exceeds the capacity.
+     */
+    int reserve(int size);
+
+    /**
+     * Returns the staging buffer. Only absolute writes may be made, at the
+     * indices returned by {@code TileUploader::reserve}.
+     *
+     * @return Staging buffer.
+     */
+    IntBuffer getBuffer();
+
+    /**
+     * Uploads reserved pixels to the currently bound texture, in BGRA order.
+     *
+     * @param base   Index of first pixel in the staging buffer.
+     * @param x      Texel X coordinate.
+     * @param y      Texel Y coordinate.
+     * @param width  Width of uploaded rectangle.
+     * @param height Height of uploaded rectangle.
+     */
+    void upload(int base, int x, int y, int width, int height);
+
+    /**
+     * Marks the end of a frame's uploads.
+     */
+    void endFrame();
+
+    /**
+     * Releases any resources held by the uploader.
+     */
+    void delete();
+}
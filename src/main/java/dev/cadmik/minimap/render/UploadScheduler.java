@@ -0,0 +1,110 @@
+package dev.cadmik.minimap.render;
+
+import net.minecraft.world.ChunkCoordIntPair;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The staging area of chunk tiles awaiting upload to the texture atlas.
+ *
+ * <p> Each slot is staged at most once, no matter how often it's recolored
+ * in the meantime. Staged slots are handed out nearest to the player first,
+ * so that a full window sweep fills in from the middle, spread over as many
+ * frames as the upload budget requires.
+ */
+final class UploadScheduler {
+    private final BitSet staged;
+    private int stagedCount;
+
+    /**
+     * Reusable sort keys, each packing a slot's squared distance from the
+     * central chunk above the slot itself.
+     */
+    private final long[] order;
+
+    /**
+     * Creates a scheduler for the specified number of atlas slots.
+     *
+     * @param capacity Number of atlas slots.
+     */
+    UploadScheduler(int capacity) {
+        this.staged = new BitSet(capacity);
+        this.order = new long[capacity];
+    }
+
+    /**
+     * Stages the specified slot for upload, if not staged already.
+     *
+     * @param offs Texture atlas offset of chunk tile.
+     */
+    void stage(int offs) {
+        if (!this.staged.get(offs)) {
+            this.staged.set(offs);
+            this.stagedCount++;
+        }
+    }
+
+    /**
+     * Removes the specified slot from the staging area, if staged.
+     *
+     * @param offs Texture atlas offset of chunk tile.
+     */
+    void cancel(int offs) {
+        if (this.staged.get(offs)) {
+            this.staged.clear(offs);
+            this.stagedCount--;
+        }
+    }
+
+    boolean isStaged(int offs) {
+        return this.staged.get(offs);
+    }
+
+    int size() {
+        return this.stagedCount;
+    }
+
+    /**
+     * Removes all slots from the staging area.
+     */
+    void clear() {
+        this.staged.clear();
+        this.stagedCount = 0;
+    }
+
+    /**
+     * Removes up to the specified number of staged slots from the staging
+     * area, nearest to the central chunk first.
+     *
+     * @param out     Destination of removed slots, in priority order.
+     * @param max     Maximum number of slots to remove.
+     * @param coords  Bound chunk of each slot.
+     * @param centerX X coordinate of central chunk.
+     * @param centerZ Z coordinate of central chunk.
+     * @return Number of removed slots.
+     */
+    int poll(int[] out, int max, ChunkCoordIntPair[] coords, int centerX, int centerZ) {
+        int n = 0;
+
+        for (int offs = this.staged.nextSetBit(0); offs >= 0; offs = this.staged.nextSetBit(offs + 1)) {
+            ChunkCoordIntPair c = coords[offs];
+            long dx = c.chunkXPos - centerX;
+            long dz = c.chunkZPos - centerZ;
+
+            this.order[n++] = (dx * dx + dz * dz) << 32 | offs;
+        }
+
+        Arrays.sort(this.order, 0, n);
+
+        int count = Math.min(n, max);
+        for (int i = 0; i < count; i++) {
+            int offs = (int) this.order[i];
+
+            out[i] = offs;
+            this.cancel(offs);
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,132 @@
+package dev.cadmik.minimap.render.color;
+
+import net.minecraft.block.material.MapColor;
+
+/**
+ * Computes the color and shading of chunk snapshots.
+ *
+ * <p> Colorizers only ever read from snapshots and their palette, so they
+ * can run on any thread, and don't require a running game to be tested.
+ */
+public final class ChunkColorizer {
+    /**
+     * The final ARGB color of every map color index and shade, indexed by
+     * {@code colorIndex << 2 | shade}. Map colors never change, so this is
+     * built once, sparing a virtual call and its multiplications per pixel.
+     */
+    private static final int[] SHADED_COLORS = new int[MapColor.mapColorArray.length << 2];
+
+    static {
+        for (int i = 0; i < MapColor.mapColorArray.length; i++) {
+            MapColor color = MapColor.mapColorArray[i];
+            if (color == null) {
+                continue;
+            }
+
+            for (int shade = 0; shade < 4; shade++) {
+                SHADED_COLORS[i << 2 | shade] = color.func_151643_b(shade);
+            }
+        }
+    }
+
+    private final ColumnScanner scanner;
+
+    public ChunkColorizer(StatePalette palette) {
+        this.scanner = new ColumnScanner(palette);
+    }
+
+    /**
+     * Scans the specified chunk snapshot into its surface, and computes its
+     * color and shading.
+     *
+     * @param src    Source snapshot for color computation.
+     * @param pixels Destination of the 16x16 RGB tile, indexed by
+     *               {@code x | z << 4}.
+     * @return Surface of the snapshot.
+     * @see #colorize(ChunkSnapshot, int[], int[], int[])
+     */
+    public ChunkSurface colorize(ChunkSnapshot src, int[] pixels) {
+        int[] scans = new int[256];
+        int[] northHeights = new int[16];
+        this.colorize(src, pixels, scans, northHeights);
+
+        return new ChunkSurface(src.getChunkX(), src.getChunkZ(), scans, northHeights);
+    }
+
+    /**
+     * Scans and computes the color and shading of the specified chunk
+     * snapshot.
+     *
+     * <p> If the snapshot doesn't include the southern edge of the chunk to
+     * its north, the northernmost row defaults to 86% brightness.
+     *
+     * @param src          Source snapshot for color computation.
+     * @param pixels       Destination of the 16x16 RGB tile, indexed by
+     *                     {@code x | z << 4}.
+     * @param scans        Destination of the packed column scan results,
+     *                     indexed by {@code x | z << 4}.
+     * @param northHeights Destination of the north edge's column heights,
+     *                     {@code -1} where unavailable.
+     */
+    public void colorize(ChunkSnapshot src, int[] pixels, int[] scans, int[] northHeights) {
+        for (int x = 0; x < 16; x++) {
+            int northHeight = src.hasNorthEdge() ? this.scanner.scanNorthHeight(src, x) : -1;
+            northHeights[x] = northHeight;
+
+            for (int z = 0; z < 16; z++) {
+                int scan = this.scanner.scan(src, x, z);
+
+                scans[x | z << 4] = scan;
+                pixels[x | z << 4] = getColor(scan, northHeight, x, z);
+
+                northHeight = ColumnScanner.getHeight(scan);
+            }
+        }
+    }
+
+    /**
+     * Computes the color and shading of a single column.
+     *
+     * @param scan        Packed column scan result.
+     * @param northHeight Height of the column immediately to the north,
+     *                    {@code -1} if unknown.
+     * @param x           Column's X coordinate within the chunk.
+     * @param z           Column's Z coordinate within the chunk.
+     * @return Column's RGB color.
+     */
+    public static int getColor(int scan, int northHeight, int x, int z) {
+        int height = ColumnScanner.getHeight(scan);
+
+        // Solid block shading
+        int shade = 1;
+
+        if (northHeight > height) {
+            shade = 0;
+        } else if (northHeight >= 0 && northHeight < height) {
+            shade = 2;
+        }
+
+        // Liquid shading
+        int depth = ColumnScanner.getDepth(scan);
+
+        // Optimized version of code located in ItemMap::updateMapData
+        if (depth > 0) {
+            int dither = depth + (((x ^ z) & 1) << 1);
+
+            if (dither < 5) {
+                shade = 2;
+            } else if (dither > 9) {
+                shade = 0;
+            }
+        }
+
+        // Void shading
+        if (height > 0) {
+            return SHADED_COLORS[ColumnScanner.getColorIndex(scan) << 2 | shade];
+        } else if (((x ^ z) & 3) == 0) {
+            return 0x2d2d5a;
+        } else {
+            return 0x1e1e3c;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package dev.cadmik.minimap.render.color;
+
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * An immutable copy of a chunk's block state storage and heightmap, along
+ * with the southern edge of the chunk to its north (needed for shading).
+ *
+ * <p> Snapshots must be captured on the client thread, but can then be
+ * read from any thread.
+ */
+public final class ChunkSnapshot {
+    private final int chunkX;
+    private final int chunkZ;
+
+    /**
+     * Block state IDs of each 16-block section, indexed by
+     * {@code y << 8 | z << 4 | x}. Empty sections are {@code null}.
+     */
+    private final char[][] sections;
+
+    /**
+     * Height above the topmost light-blocking block of each column, indexed
+     * by {@code z << 4 | x}, or {@code null} if unavailable.
+     */
+    private final int[] heightMap;
+
+    /**
+     * Block state IDs of the north chunk's southern edge (z = 15), indexed
+     * by {@code y << 4 | x}. Empty sections are {@code null}, and the whole
+     * array is {@code null} if the north chunk wasn't loaded.
+     */
+    private final char[][] northEdge;
+    private final int[] northHeightMap;
+
+    /**
+     * Creates a snapshot from raw block state storage. The arrays are
+     * used as-is, and must not be modified afterwards.
+     *
+     * @param chunkX         Chunk's X coordinate.
+     * @param chunkZ         Chunk's Z coordinate.
+     * @param sections       Block state IDs of each section (16 entries).
+     * @param heightMap      Chunk's heightmap (256 entries), or {@code null}
+     *                       to scan from the topmost section.
+     * @param northEdge      Block state IDs of north chunk's southern edge
+     *                       (16 entries), or {@code null} if unavailable.
+     * @param northHeightMap Heightmap of north chunk's southern edge (16
+     *                       entries), or {@code null}.
+     */
+    public ChunkSnapshot(int chunkX, int chunkZ, char[][] sections, int[] heightMap,
+                         char[][] northEdge, int[] northHeightMap) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.sections = sections;
+        this.heightMap = heightMap;
+        this.northEdge = northEdge;
+        this.northHeightMap = northHeightMap;
+    }
+
+    /**
+     * Captures a snapshot of the specified chunk.
+     *
+     * <p> Sections above the chunk's heightmap are never scanned, so they
+     * aren't copied either.
+     *
+     * @param src   Chunk to copy.
+     * @param north Chunk immediately to the north, or {@code null}.
+     * @return Snapshot of the chunk.
+     */
+    public static ChunkSnapshot capture(Chunk src, Chunk north) {
+        int[] heightMap = src.getHeightMap().clone();
+
+        int maxHeight = 0;
+        for (int h : heightMap) {
+            maxHeight = Math.max(maxHeight, h);
+        }
+
+        ExtendedBlockStorage[] storage = src.getBlockStorageArray();
+        char[][] sections = new char[16][];
+
+        for (int i = Math.min(maxHeight, 255) >> 4; i >= 0; i--) {
+            ExtendedBlockStorage ebs = storage[i];
+            if (ebs != null && !ebs.isEmpty()) {
+                sections[i] = ebs.getData().clone();
+            }
+        }
+
+        char[][] northEdge = null;
+        int[] northHeightMap = null;
+
+        if (north != null) {
+            storage = north.getBlockStorageArray();
+            northEdge = new char[16][];
+            northHeightMap = new int[16];
+
+            maxHeight = 0;
+            for (int x = 0; x < 16; x++) {
+                northHeightMap[x] = north.getHeightValue(x, 15);
+                maxHeight = Math.max(maxHeight, northHeightMap[x]);
+            }
+
+            for (int i = Math.min(maxHeight, 255) >> 4; i >= 0; i--) {
+                ExtendedBlockStorage ebs = storage[i];
+                if (ebs == null || ebs.isEmpty()) {
+                    continue;
+                }
+
+                char[] data = ebs.getData();
+                char[] edge = new char[256];
+
+                for (int y = 0; y < 16; y++) {
+                    System.arraycopy(data, y << 8 | 15 << 4, edge, y << 4, 16);
+                }
+
+                northEdge[i] = edge;
+            }
+        }
+
+        return new ChunkSnapshot(src.xPosition, src.zPosition, sections, heightMap, northEdge, northHeightMap);
+    }
+
+    public int getChunkX() {
+        return this.chunkX;
+    }
+
+    public int getChunkZ() {
+        return this.chunkZ;
+    }
+
+    /**
+     * Determines whether the north chunk's southern edge was captured.
+     *
+     * @return {@code true} iff the north edge is available.
+     */
+    public boolean hasNorthEdge() {
+        return this.northEdge != null;
+    }
+
+    /**
+     * Returns the block state ID at the specified block coordinates. Any
+     * coordinates outside of the chunk's vertical bounds are air.
+     *
+     * @param x Block's X coordinate within the chunk.
+     * @param y Block's Y coordinate.
+     * @param z Block's Z coordinate within the chunk.
+     * @return Block state ID.
+     */
+    public int getStateId(int x, int y, int z) {
+        if (y < 0 || y >= 256) {
+            return 0;
+        }
+
+        char[] section = this.sections[y >> 4];
+        return section == null ? 0 : section[(y & 15) << 8 | z << 4 | x];
+    }
+
+    /**
+     * Returns the Y coordinate a scan of the specified column starts at.
+     *
+     * @param x Column's X coordinate within the chunk.
+     * @param z Column's Z coordinate within the chunk.
+     * @return Starting Y coordinate.
+     */
+    int getStartY(int x, int z) {
+        if (this.heightMap == null) {
+            return getTopY(this.sections);
+        }
+
+        return Math.min(this.heightMap[z << 4 | x], 255);
+    }
+
+    /**
+     * Returns the Y coordinate a scan of the specified north edge column
+     * starts at.
+     *
+     * @param x Column's X coordinate within the chunk.
+     * @return Starting Y coordinate.
+     */
+    int getNorthStartY(int x) {
+        if (this.northHeightMap == null) {
+            return getTopY(this.northEdge);
+        }
+
+        return Math.min(this.northHeightMap[x], 255);
+    }
+
+    /**
+     * Computes a 64-bit hash of the snapshot's own block state storage and
+     * heightmap. The north edge is not included.
+     *
+     * <p> This is far cheaper than colorization, so it's used to detect
+     * whether a previously colorized tile is still up to date.
+     *
+     * @return Content hash, never {@code 0}.
+     */
+    public long computeContentHash() {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < 16; i++) {
+            char[] section = this.sections[i];
+            if (section == null) {
+                continue;
+            }
+
+            hash = (hash ^ i) * 0x100000001b3L;
+            for (char c : section) {
+                hash = (hash ^ c) * 0x100000001b3L;
+            }
+        }
+
+        if (this.heightMap != null) {
+            for (int h : this.heightMap) {
+                hash = (hash ^ h) * 0x100000001b3L;
+            }
+        }
+
+        // Zero is reserved for tiles without a known hash.
+        return hash == 0 ? 1 : hash;
+    }
+
+    char[][] getSections() {
+        return this.sections;
+    }
+
+    char[][] getNorthEdge() {
+        return this.northEdge;
+    }
+
+    /**
+     * Returns the highest Y coordinate of the topmost non-empty section, in
+     * the same manner as {@code Chunk::getTopFilledSegment() + 15}.
+     */
+    private static int getTopY(char[][] sections) {
+        for (int i = sections.length - 1; i >= 0; i--) {
+            if (sections[i] != null) {
+                return (i << 4) + 15;
+            }
+        }
+
+        return 15;
+    }
+}
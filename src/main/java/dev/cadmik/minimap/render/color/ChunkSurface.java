@@ -0,0 +1,137 @@
+package dev.cadmik.minimap.render.color;
+
+/**
+ * The immutable surface of a chunk, as scanned from a ChunkSnapshot: the
+ * packed scan result of each column, and the heights of the north chunk's
+ * southern edge.
+ *
+ * <p> This is everything needed to color and shade a chunk tile, at a
+ * fraction of a snapshot's size, so surfaces are what the caching layers
+ * keep around. Like snapshots, they can be read from any thread.
+ */
+public final class ChunkSurface {
+    private final int chunkX;
+    private final int chunkZ;
+
+    /**
+     * Packed column scan results, indexed by {@code x | z << 4}.
+     */
+    private final int[] scans;
+
+    /**
+     * Heights of the north chunk's southern edge, {@code -1} where
+     * unavailable.
+     */
+    private final int[] northHeights;
+
+    private final long fingerprint;
+
+    /**
+     * Creates a surface from raw scan results. The arrays are copied, so
+     * the caller may keep reusing them.
+     *
+     * @param chunkX       Chunk's X coordinate.
+     * @param chunkZ       Chunk's Z coordinate.
+     * @param scans        Packed column scan results (256 entries).
+     * @param northHeights North edge heights (16 entries), {@code -1} where
+     *                     unavailable.
+     * @see ColumnScanner
+     */
+    public ChunkSurface(int chunkX, int chunkZ, int[] scans, int[] northHeights) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.scans = scans.clone();
+        this.northHeights = northHeights.clone();
+        this.fingerprint = computeFingerprint(this.scans, 0, this.northHeights, 0);
+    }
+
+    /**
+     * Computes a 64-bit fingerprint of a surface's scan results and north
+     * edge heights.
+     *
+     * <p> Unlike a snapshot's content hash, this only covers what the tile's
+     * colors are computed from, so changes that don't affect the surface,
+     * e.g. underground, leave it untouched.
+     *
+     * @param scans        Packed column scan results.
+     * @param scansOffs    Index of first scan result.
+     * @param northHeights North edge heights.
+     * @param northOffs    Index of first north edge height.
+     * @return Fingerprint, never {@code 0}.
+     */
+    public static long computeFingerprint(int[] scans, int scansOffs, int[] northHeights, int northOffs) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < 256; i++) {
+            hash = (hash ^ scans[scansOffs + i]) * 0x100000001b3L;
+        }
+
+        for (int i = 0; i < 16; i++) {
+            hash = (hash ^ northHeights[northOffs + i]) * 0x100000001b3L;
+        }
+
+        // Zero is reserved for surfaces without a known fingerprint.
+        return hash == 0 ? 1 : hash;
+    }
+
+    public int getChunkX() {
+        return this.chunkX;
+    }
+
+    public int getChunkZ() {
+        return this.chunkZ;
+    }
+
+    /**
+     * Returns the fingerprint of the surface.
+     *
+     * @return Fingerprint, never {@code 0}.
+     * @see #computeFingerprint(int[], int, int[], int)
+     */
+    public long getFingerprint() {
+        return this.fingerprint;
+    }
+
+    /**
+     * Returns the packed scan result of the specified column.
+     *
+     * @param x Column's X coordinate within the chunk.
+     * @param z Column's Z coordinate within the chunk.
+     * @return Packed scan result.
+     * @see ColumnScanner
+     */
+    public int getScan(int x, int z) {
+        return this.scans[z << 4 | x];
+    }
+
+    /**
+     * Returns the height of the specified column on the north chunk's
+     * southern edge.
+     *
+     * @param x Column's X coordinate within the chunk.
+     * @return North edge height, {@code -1} if unavailable.
+     */
+    public int getNorthHeight(int x) {
+        return this.northHeights[x];
+    }
+
+    /**
+     * Copies the packed column scan results into the specified array.
+     *
+     * @param dst  Destination array.
+     * @param offs Index of first destination entry.
+     */
+    public void copyScans(int[] dst, int offs) {
+        System.arraycopy(this.scans, 0, dst, offs, 256);
+    }
+
+    /**
+     * Copies the north edge heights into the specified array.
+     *
+     * @param dst  Destination array.
+     * @param offs Index of first destination entry.
+     */
+    public void copyNorthHeights(int[] dst, int offs) {
+        System.arraycopy(this.northHeights, 0, dst, offs, 16);
+    }
+}
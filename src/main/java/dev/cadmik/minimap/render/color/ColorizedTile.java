@@ -0,0 +1,99 @@
+package dev.cadmik.minimap.render.color;
+
+/**
+ * A finished chunk tile, waiting to be uploaded to the texture atlas.
+ */
+public final class ColorizedTile {
+    private final int chunkX;
+    private final int chunkZ;
+
+    private final int offset;
+    private final int stamp;
+
+    private final int[] pixels;
+    private final ChunkSurface surface;
+
+    private final long hash;
+
+    /**
+     * Creates a tile.
+     *
+     * <p> If the tile's chunk turned out to be unchanged since it was last
+     * colorized, the color data and surface are {@code null}.
+     */
+    public ColorizedTile(int chunkX, int chunkZ, int offset, int stamp,
+                         int[] pixels, ChunkSurface surface, long hash) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.offset = offset;
+        this.stamp = stamp;
+        this.pixels = pixels;
+        this.surface = surface;
+        this.hash = hash;
+    }
+
+    public int getChunkX() {
+        return this.chunkX;
+    }
+
+    public int getChunkZ() {
+        return this.chunkZ;
+    }
+
+    /**
+     * Returns the texture atlas offset the tile was requested for.
+     *
+     * @return Texture atlas offset.
+     */
+    public int getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Returns the request stamp of the tile's offset at the time of request.
+     * Tiles whose stamp no longer matches have been superseded.
+     *
+     * @return Request stamp.
+     */
+    public int getStamp() {
+        return this.stamp;
+    }
+
+    /**
+     * Returns the tile's 16x16 RGB color data, indexed by {@code x | z << 4}.
+     *
+     * @return Tile's color data.
+     */
+    public int[] getPixels() {
+        return this.pixels;
+    }
+
+    /**
+     * Returns the surface the tile was colored and shaded from.
+     *
+     * @return Tile's surface.
+     */
+    public ChunkSurface getSurface() {
+        return this.surface;
+    }
+
+    /**
+     * Returns the content hash of the tile's chunk.
+     *
+     * @return Content hash of the chunk.
+     * @see ChunkSnapshot#computeContentHash()
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
+    /**
+     * Determines whether the tile's chunk was found unchanged since it was
+     * last colorized, in which case there's nothing to upload.
+     *
+     * @return {@code true} iff the chunk is unchanged.
+     */
+    public boolean isUnchanged() {
+        return this.pixels == null;
+    }
+}
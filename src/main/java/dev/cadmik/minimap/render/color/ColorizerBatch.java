@@ -0,0 +1,102 @@
+package dev.cadmik.minimap.render.color;
+
+import java.util.Arrays;
+
+/**
+ * A batch of colorization requests, collected while binding many chunks at
+ * once, e.g. when joining a world.
+ *
+ * <p> A batch can be cleared and reused once it's submitted, so collecting
+ * requests doesn't allocate unless the batch has to grow.
+ *
+ * @see ColorizerPool#submit(ColorizerBatch)
+ */
+public final class ColorizerBatch {
+    private ChunkSnapshot[] snapshots;
+    private int[] offsets;
+    private int[] stamps;
+    private long[] hashes;
+
+    private int size;
+
+    public ColorizerBatch() {
+        this(64);
+    }
+
+    private ColorizerBatch(int capacity) {
+        this.snapshots = new ChunkSnapshot[capacity];
+        this.offsets = new int[capacity];
+        this.stamps = new int[capacity];
+        this.hashes = new long[capacity];
+    }
+
+    /**
+     * Adds a request to the batch.
+     *
+     * @param src          Snapshot to colorize.
+     * @param offset       Texture atlas offset to upload the tile to.
+     * @param stamp        Request stamp of the offset.
+     * @param expectedHash Content hash of the tile currently in the texture
+     *                     atlas, {@code 0} if unknown.
+     * @see ColorizerPool#submit(ChunkSnapshot, int, int, long)
+     */
+    public void add(ChunkSnapshot src, int offset, int stamp, long expectedHash) {
+        if (this.size == this.snapshots.length) {
+            int capacity = this.size << 1;
+            this.snapshots = Arrays.copyOf(this.snapshots, capacity);
+            this.offsets = Arrays.copyOf(this.offsets, capacity);
+            this.stamps = Arrays.copyOf(this.stamps, capacity);
+            this.hashes = Arrays.copyOf(this.hashes, capacity);
+        }
+
+        this.snapshots[this.size] = src;
+        this.offsets[this.size] = offset;
+        this.stamps[this.size] = stamp;
+        this.hashes[this.size] = expectedHash;
+        this.size++;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Removes all requests, releasing their snapshots.
+     */
+    public void clear() {
+        Arrays.fill(this.snapshots, 0, this.size, null);
+        this.size = 0;
+    }
+
+    /**
+     * Returns a copy of the batch, trimmed to its size.
+     *
+     * @return Copy of the batch.
+     */
+    ColorizerBatch copy() {
+        ColorizerBatch copy = new ColorizerBatch(Math.max(this.size, 1));
+        System.arraycopy(this.snapshots, 0, copy.snapshots, 0, this.size);
+        System.arraycopy(this.offsets, 0, copy.offsets, 0, this.size);
+        System.arraycopy(this.stamps, 0, copy.stamps, 0, this.size);
+        System.arraycopy(this.hashes, 0, copy.hashes, 0, this.size);
+        copy.size = this.size;
+
+        return copy;
+    }
+
+    ChunkSnapshot getSnapshot(int i) {
+        return this.snapshots[i];
+    }
+
+    int getOffset(int i) {
+        return this.offsets[i];
+    }
+
+    int getStamp(int i) {
+        return this.stamps[i];
+    }
+
+    long getExpectedHash(int i) {
+        return this.hashes[i];
+    }
+}
@@ -0,0 +1,213 @@
+package dev.cadmik.minimap.render.color;
+
+import dev.cadmik.minimap.stats.Stats;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of worker threads colorizing chunk snapshots off the client
+ * thread.
+ *
+ * <p> Finished tiles are collected in a queue, which the render thread
+ * drains whenever it's ready to upload them.
+ *
+ * <p> Bulk binds, such as joining a world, are colorized by a separate
+ * fork-join pool instead, which splits the batch across all of its threads.
+ */
+public final class ColorizerPool {
+    /**
+     * The number of requests below which a batch isn't split any further.
+     */
+    private static final int BATCH_GRAIN = 4;
+
+    /**
+     * The minimum size of a batch for it to be colorized in bulk. Smaller
+     * batches are just a few chunks at the edge of the window.
+     */
+    private static final int BULK_THRESHOLD = 16;
+
+    private final ExecutorService executor;
+    private final ForkJoinPool bulkExecutor;
+    private final ChunkColorizer colorizer;
+    private final Queue<ColorizedTile> finished = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a colorizer pool.
+     *
+     * @param colorizer   Colorizer run by the worker threads.
+     * @param threads     Maximum number of worker threads.
+     * @param bulkThreads Parallelism of bulk colorization.
+     */
+    public ColorizerPool(ChunkColorizer colorizer, int threads, int bulkThreads) {
+        this.colorizer = colorizer;
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new WorkerFactory()
+        );
+
+        // Nothing to colorize while idle, so don't keep threads around.
+        executor.allowCoreThreadTimeOut(true);
+
+        this.executor = executor;
+
+        // Fork-join threads are retired on their own once idle.
+        this.bulkExecutor = new ForkJoinPool(bulkThreads, pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("Minimap Bulk Colorizer #" + t.getPoolIndex());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+
+            return t;
+        }, null, false);
+    }
+
+    /**
+     * Schedules the specified snapshot for colorization.
+     *
+     * <p> If the snapshot's content hash matches the specified one, the chunk
+     * isn't colorized again, and an unchanged tile is produced instead.
+     *
+     * @param src          Snapshot to colorize.
+     * @param offset       Texture atlas offset to upload the tile to.
+     * @param stamp        Request stamp of the offset.
+     * @param expectedHash Content hash of the tile currently in the texture
+     *                     atlas, {@code 0} if unknown.
+     */
+    public void submit(ChunkSnapshot src, int offset, int stamp, long expectedHash) {
+        this.executor.execute(() -> this.finished.add(this.colorize(src, offset, stamp, expectedHash)));
+    }
+
+    /**
+     * Schedules a batch of snapshots for colorization. Large batches are
+     * split across the bulk colorization threads, while small ones are
+     * scheduled like single snapshots.
+     *
+     * <p> The finished tiles of a large batch are handed over all at once, in
+     * the batch's order, once the whole batch is done.
+     *
+     * @param batch Batch to colorize. May be cleared and reused once this
+     *              returns, as large batches are copied.
+     */
+    public void submit(ColorizerBatch batch) {
+        if (batch.size() < BULK_THRESHOLD) {
+            for (int i = 0; i < batch.size(); i++) {
+                this.submit(batch.getSnapshot(i), batch.getOffset(i), batch.getStamp(i), batch.getExpectedHash(i));
+            }
+
+            return;
+        }
+
+        ColorizerBatch copy = batch.copy();
+        ColorizedTile[] tiles = new ColorizedTile[copy.size()];
+
+        this.bulkExecutor.execute(() -> {
+            new BatchTask(copy, tiles, 0, tiles.length).invoke();
+            this.finished.addAll(Arrays.asList(tiles));
+        });
+    }
+
+    /**
+     * Retrieves and removes the next finished tile.
+     *
+     * @return Next finished tile, or {@code null} if none are available.
+     */
+    public ColorizedTile poll() {
+        return this.finished.poll();
+    }
+
+    /**
+     * Colorizes the specified snapshot, unless its content hash matches the
+     * specified one.
+     *
+     * @see #submit(ChunkSnapshot, int, int, long)
+     */
+    private ColorizedTile colorize(ChunkSnapshot src, int offset, int stamp, long expectedHash) {
+        long hash = src.computeContentHash();
+
+        if (hash == expectedHash) {
+            return new ColorizedTile(
+                    src.getChunkX(), src.getChunkZ(), offset, stamp,
+                    null, null, hash
+            );
+        }
+
+        long start = Stats.COLORIZE.start();
+
+        int[] pixels = new int[256];
+        ChunkSurface surface = this.colorizer.colorize(src, pixels);
+
+        Stats.COLORIZE.stop(start);
+        Stats.CHUNKS_COLORIZED.increment();
+
+        return new ColorizedTile(
+                src.getChunkX(), src.getChunkZ(), offset, stamp,
+                pixels, surface, hash
+        );
+    }
+
+    /**
+     * Colorizes a range of a batch into the matching range of tiles, halving
+     * it until it's small enough.
+     */
+    private final class BatchTask extends RecursiveAction {
+        private final ColorizerBatch batch;
+        private final ColorizedTile[] tiles;
+        private final int from, to;
+
+        BatchTask(ColorizerBatch batch, ColorizedTile[] tiles, int from, int to) {
+            this.batch = batch;
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= BATCH_GRAIN) {
+                for (int i = this.from; i < this.to; i++) {
+                    this.tiles[i] = ColorizerPool.this.colorize(
+                            this.batch.getSnapshot(i), this.batch.getOffset(i),
+                            this.batch.getStamp(i), this.batch.getExpectedHash(i)
+                    );
+                }
+
+                return;
+            }
+
+            int mid = this.from + this.to >>> 1;
+            invokeAll(
+                    new BatchTask(this.batch, this.tiles, this.from, mid),
+                    new BatchTask(this.batch, this.tiles, mid, this.to)
+            );
+        }
+    }
+
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "Minimap Colorizer #" + this.count.incrementAndGet());
+
+            // Never keep the game from shutting down.
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+
+            return t;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package dev.cadmik.minimap.render.color;
+
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+/**
+ * Scans block columns of chunk snapshots for their topmost colored block.
+ *
+ * <p> Scans start at the column's heightmap value, like
+ * {@code ItemMap::updateMapData}, and skip empty sections wholesale. Results
+ * are packed into a single {@code int}, so scanning never allocates.
+ */
+public final class ColumnScanner {
+    private static final int HEIGHT_BITS = 9;
+    private static final int DEPTH_BITS = 9;
+
+    private static final int HEIGHT_MASK = (1 << HEIGHT_BITS) - 1;
+    private static final int DEPTH_MASK = (1 << DEPTH_BITS) - 1;
+
+    private final StatePalette palette;
+
+    public ColumnScanner(StatePalette palette) {
+        this.palette = palette;
+    }
+
+    /**
+     * Scans the specified column for its topmost colored block, and the
+     * depth of any liquid (or other non-solid block) it consists of.
+     *
+     * <p> If the column contains no colored block, the height is {@code 0}.
+     *
+     * @param src Snapshot to scan.
+     * @param x   Column's X coordinate within the chunk.
+     * @param z   Column's Z coordinate within the chunk.
+     * @return Packed scan result.
+     * @see #getHeight(int)
+     * @see #getColorIndex(int)
+     * @see #getDepth(int)
+     */
+    public int scan(ChunkSnapshot src, int x, int z) {
+        return scan(this.palette.snapshot(), src.getSections(), src.getStartY(x, z), x, z);
+    }
+
+    /**
+     * Scans the specified column of a live chunk. Must be called from the
+     * client thread.
+     *
+     * @param src      Chunk to scan.
+     * @param sections View of the chunk's sections.
+     * @param x        Column's X coordinate within the chunk.
+     * @param z        Column's Z coordinate within the chunk.
+     * @return Packed scan result.
+     * @see #viewSections(Chunk, char[][])
+     * @see #scan(ChunkSnapshot, int, int)
+     */
+    public int scan(Chunk src, char[][] sections, int x, int z) {
+        return scan(this.palette.snapshot(), sections, Math.min(src.getHeightValue(x, z), 255), x, z);
+    }
+
+    /**
+     * Fills the specified array with a view of a live chunk's block state
+     * storage, without copying. Must be called from the client thread.
+     *
+     * @param src      Chunk to view.
+     * @param sections Reusable array of 16 entries.
+     * @return The specified array.
+     */
+    public static char[][] viewSections(Chunk src, char[][] sections) {
+        ExtendedBlockStorage[] storage = src.getBlockStorageArray();
+
+        for (int i = 0; i < 16; i++) {
+            ExtendedBlockStorage ebs = storage[i];
+            sections[i] = ebs == null || ebs.isEmpty() ? null : ebs.getData();
+        }
+
+        return sections;
+    }
+
+    /**
+     * Scans the specified column, resolving blocks through a palette
+     * snapshot taken once by the caller.
+     */
+    private static int scan(StatePalette palette, char[][] sections, int startY, int x, int z) {
+        int column = z << 4 | x;
+
+        int y = startY;
+        int stateId = 0;
+        int colorIndex = 0;
+
+        // Surface
+        while (y >= 0) {
+            char[] section = sections[y >> 4];
+
+            if (section == null) {
+                y = (y & ~15) - 1;
+                continue;
+            }
+
+            stateId = section[(y & 15) << 8 | column];
+            colorIndex = palette.getColorIndex(stateId);
+
+            if (colorIndex != 0 || y == 0) {
+                break;
+            }
+
+            y--;
+        }
+
+        if (y < 0) {
+            y = 0;
+            stateId = 0;
+        }
+
+        int height = y;
+
+        // Liquid depth
+        int depth = 0;
+        while (!palette.isSolid(stateId)) {
+            depth++;
+            if (--y < 0) {
+                break;
+            }
+
+            char[] section = sections[y >> 4];
+
+            if (section == null) {
+                // All air; step straight to the bottom of the section.
+                depth += y & 15;
+                y &= ~15;
+                stateId = 0;
+            } else {
+                stateId = section[(y & 15) << 8 | column];
+            }
+        }
+
+        return height | depth << HEIGHT_BITS | colorIndex << HEIGHT_BITS + DEPTH_BITS;
+    }
+
+    /**
+     * Scans the specified column on the southern edge of the snapshot's north
+     * chunk for the height of its topmost colored block.
+     *
+     * @param src Snapshot to scan. Must include the north edge.
+     * @param x   Column's X coordinate within the chunk.
+     * @return Height of topmost colored block, {@code 0} if none.
+     */
+    public int scanNorthHeight(ChunkSnapshot src, int x) {
+        StatePalette palette = this.palette.snapshot();
+        char[][] sections = src.getNorthEdge();
+
+        int y = src.getNorthStartY(x);
+        while (y > 0) {
+            char[] section = sections[y >> 4];
+
+            if (section == null) {
+                y = (y & ~15) - 1;
+                continue;
+            }
+
+            if (palette.getColorIndex(section[(y & 15) << 4 | x]) != 0) {
+                break;
+            }
+
+            y--;
+        }
+
+        return Math.max(y, 0);
+    }
+
+    /**
+     * Returns the height of the topmost colored block of a scan result.
+     *
+     * @param scan Packed scan result.
+     * @return Height of topmost colored block.
+     */
+    public static int getHeight(int scan) {
+        return scan & HEIGHT_MASK;
+    }
+
+    /**
+     * Returns the number of non-solid blocks from the topmost colored block
+     * down to the first solid one, of a scan result.
+     *
+     * @param scan Packed scan result.
+     * @return Liquid depth.
+     */
+    public static int getDepth(int scan) {
+        return scan >>> HEIGHT_BITS & DEPTH_MASK;
+    }
+
+    /**
+     * Returns the map color index of the topmost colored block of a scan
+     * result.
+     *
+     * @param scan Packed scan result.
+     * @return Map color index.
+     */
+    public static int getColorIndex(int scan) {
+        return scan >>> HEIGHT_BITS + DEPTH_BITS;
+    }
+}
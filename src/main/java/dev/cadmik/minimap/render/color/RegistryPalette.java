@@ -0,0 +1,111 @@
+package dev.cadmik.minimap.render.color;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+
+/**
+ * A palette backed by a snapshot of the game's block state registry.
+ *
+ * <p> Resolving a block state through the registry takes a map lookup and
+ * two virtual calls, for every block a scan walks. Instead, the map color
+ * index and solidity of every block state ID are flattened into arrays up
+ * front, so that scans only ever read from them.
+ *
+ * <p> Block state IDs can be remapped, e.g. when joining a server with a
+ * different set of mods, so the snapshot must be rebuilt whenever that
+ * happens.
+ */
+public final class RegistryPalette implements StatePalette {
+    private static final RegistryPalette instance = new RegistryPalette();
+
+    /**
+     * The current snapshot. Replaced as a whole by {@link #rebuild()}, so
+     * any thread only ever sees a complete one.
+     */
+    private volatile Table table;
+
+    public static RegistryPalette getInstance() {
+        return instance;
+    }
+
+    private RegistryPalette() {
+        this.rebuild();
+    }
+
+    /**
+     * Snapshots the block state registry again. Must be called from the
+     * client thread.
+     */
+    public void rebuild() {
+        this.table = new Table();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getColorIndex(int stateId) {
+        return this.table.getColorIndex(stateId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSolid(int stateId) {
+        return this.table.isSolid(stateId);
+    }
+
+    /**
+     * Returns the current snapshot, so that the volatile field is only read
+     * once per scan, rather than once per block.
+     *
+     * @return Current snapshot.
+     */
+    @Override
+    public StatePalette snapshot() {
+        return this.table;
+    }
+
+    private static final class Table implements StatePalette {
+        /**
+         * Block state IDs are stored in {@code char}s, so there can't be more
+         * than this many.
+         */
+        private static final int SIZE = 1 << 16;
+
+        /**
+         * The map color index of every block state ID, and the bitmap of
+         * block state IDs whose material is solid. Unregistered IDs are
+         * transparent and non-solid, like air.
+         */
+        private final byte[] colorIndices = new byte[SIZE];
+        private final long[] solid = new long[SIZE >> 6];
+
+        Table() {
+            for (IBlockState state : Block.BLOCK_STATE_IDS) {
+                int stateId = Block.BLOCK_STATE_IDS.get(state);
+                if (stateId < 0 || stateId >= SIZE) {
+                    continue;
+                }
+
+                Block block = state.getBlock();
+                this.colorIndices[stateId] = (byte) block.getMapColor(state).colorIndex;
+
+                if (block.getMaterial().isSolid()) {
+                    this.solid[stateId >> 6] |= 1L << stateId;
+                }
+            }
+        }
+
+        @Override
+        public int getColorIndex(int stateId) {
+            return this.colorIndices[stateId & 0xffff];
+        }
+
+        @Override
+        public boolean isSolid(int stateId) {
+            return (this.solid[(stateId & 0xffff) >> 6] & 1L << stateId) != 0;
+        }
+    }
+}
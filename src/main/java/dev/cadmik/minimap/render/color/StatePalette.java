@@ -0,0 +1,37 @@
+package dev.cadmik.minimap.render.color;
+
+/**
+ * Resolves block state IDs to the properties needed for map colorization.
+ *
+ * <p> Implementations must be safe to call from any thread.
+ */
+public interface StatePalette {
+    /**
+     * Returns the map color index of the specified block state, where
+     * {@code 0} is the transparent "air" color.
+     *
+     * @param stateId Block state ID.
+     * @return Map color index of the block state.
+     */
+    int getColorIndex(int stateId);
+
+    /**
+     * Determines whether the specified block state's material is solid.
+     * Used to measure the depth of liquids.
+     *
+     * @param stateId Block state ID.
+     * @return {@code true} iff the block state's material is solid.
+     */
+    boolean isSolid(int stateId);
+
+    /**
+     * Returns a view of this palette that stays the same for as long as it's
+     * used, so that a scan can resolve every block it walks without
+     * rereading whatever backs a palette that can change.
+     *
+     * @return Unchanging view of this palette.
+     */
+    default StatePalette snapshot() {
+        return this;
+    }
+}
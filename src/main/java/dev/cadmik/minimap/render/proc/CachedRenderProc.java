@@ -0,0 +1,188 @@
+package dev.cadmik.minimap.render.proc;
+
+import dev.cadmik.minimap.render.ChunkAtlas;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.ScaledResolution;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.client.shader.Framebuffer;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * A caching map rendering procedure, wrapping another procedure.
+ *
+ * <p> The wrapped procedure renders into an offscreen framebuffer, which is
+ * then composited onto the screen as a single quad. It's only rendered again
+ * once the player moves or turns far enough, or the texture atlas changes,
+ * so an idle minimap costs next to nothing.
+ *
+ * <p> The framebuffer covers the whole screen, so that the wrapped procedure
+ * can render at its usual screen coordinates, scissor included.
+ */
+public class CachedRenderProc extends MapRenderProc {
+    private final MapRenderProc proc;
+
+    /**
+     * Player movement (in blocks) and rotation (in degrees) that force the
+     * map to be rendered again.
+     */
+    private final double moveThreshold;
+    private final double yawEpsilon;
+
+    private Framebuffer fb;
+
+    /**
+     * The state the cached map was rendered with.
+     */
+    private boolean valid;
+    private double screenX, screenY;
+    private double camX, camZ, yaw;
+    private int revision;
+
+    /**
+     * Creates a caching procedure.
+     *
+     * @param proc          Procedure to render the map with.
+     * @param moveThreshold Player movement that forces the map to be
+     *                      rendered again, in blocks.
+     * @param yawEpsilon    Player rotation that forces the map to be
+     *                      rendered again, in degrees.
+     */
+    public CachedRenderProc(MapRenderProc proc, double moveThreshold, double yawEpsilon) {
+        this.proc = proc;
+        this.moveThreshold = moveThreshold;
+        this.yawEpsilon = yawEpsilon;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void render(double screenX, double screenY, double camX, double camZ, double yaw) {
+        // Framebuffers can be toggled in the video settings at any time.
+        if (!OpenGlHelper.isFramebufferEnabled()) {
+            this.valid = false;
+            this.proc.render(screenX, screenY, camX, camZ, yaw);
+            return;
+        }
+
+        Minecraft mc = Minecraft.getMinecraft();
+
+        if (this.fb == null) {
+            // The stencil buffer is only ever attached alongside the depth
+            // buffer, as DEPTH24_STENCIL8, so the depth buffer is needed for
+            // a stencil-clipped procedure. Resizing keeps both.
+            this.fb = new Framebuffer(mc.displayWidth, mc.displayHeight, true);
+            this.fb.enableStencil();
+            this.fb.setFramebufferColor(0, 0, 0, 0);
+            this.valid = false;
+        } else if (this.fb.framebufferWidth != mc.displayWidth || this.fb.framebufferHeight != mc.displayHeight) {
+            this.fb.createBindFramebuffer(mc.displayWidth, mc.displayHeight);
+            this.valid = false;
+        }
+
+        if (!this.isValid(screenX, screenY, camX, camZ, yaw)) {
+            this.fb.framebufferClear();
+            this.fb.bindFramebuffer(true);
+
+            this.proc.render(screenX, screenY, camX, camZ, yaw);
+
+            mc.getFramebuffer().bindFramebuffer(true);
+
+            this.valid = true;
+            this.screenX = screenX;
+            this.screenY = screenY;
+            this.camX = camX;
+            this.camZ = camZ;
+            this.yaw = yaw;
+            this.revision = ChunkAtlas.getInstance().getRevision();
+        }
+
+        this.renderCache(new ScaledResolution(mc));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getExtent() {
+        return this.proc.getExtent();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setZoom(double zoom) {
+        super.setZoom(zoom);
+        this.proc.setZoom(zoom);
+        this.valid = false;
+    }
+
+    /**
+     * Determines whether the cached map is still close enough to what would
+     * be rendered now.
+     */
+    private boolean isValid(double screenX, double screenY, double camX, double camZ, double yaw) {
+        return this.valid
+                && screenX == this.screenX && screenY == this.screenY
+                && Math.abs(camX - this.camX) <= this.moveThreshold
+                && Math.abs(camZ - this.camZ) <= this.moveThreshold
+                && Math.abs(yaw - this.yaw) <= this.yawEpsilon
+                && ChunkAtlas.getInstance().getRevision() == this.revision;
+    }
+
+    /**
+     * Composites the part of the framebuffer covered by the cached map onto
+     * the screen.
+     *
+     * @param res Current scaled resolution.
+     */
+    private void renderCache(ScaledResolution res) {
+        double extent = this.proc.getExtent();
+
+        // Clamp to the screen, beyond which the framebuffer holds nothing.
+        double minX = Math.max(this.screenX - extent, 0);
+        double minY = Math.max(this.screenY - extent, 0);
+        double maxX = Math.min(this.screenX + extent, res.getScaledWidth());
+        double maxY = Math.min(this.screenY + extent, res.getScaledHeight());
+
+        double scale = res.getScaleFactor();
+        double texWidth = this.fb.framebufferTextureWidth;
+        double texHeight = this.fb.framebufferTextureHeight;
+        int height = this.fb.framebufferHeight;
+
+        // Framebuffer rows start at the bottom of the screen.
+        double minU = minX * scale / texWidth;
+        double maxU = maxX * scale / texWidth;
+        double minV = (height - minY * scale) / texHeight;
+        double maxV = (height - maxY * scale) / texHeight;
+
+        GlStateManager.enableBlend();
+        GlStateManager.tryBlendFuncSeparate(
+                GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA,
+                GL11.GL_ONE, GL11.GL_ZERO
+        );
+        GlStateManager.color(1, 1, 1, 1);
+        GlStateManager.enableTexture2D();
+
+        this.fb.bindFramebufferTexture();
+
+        Tessellator tess = Tessellator.getInstance();
+        WorldRenderer wr = tess.getWorldRenderer();
+
+        wr.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
+        wr.pos(minX, minY, 0).tex(minU, minV).endVertex();
+        wr.pos(minX, maxY, 0).tex(minU, maxV).endVertex();
+        wr.pos(maxX, maxY, 0).tex(maxU, maxV).endVertex();
+        wr.pos(maxX, minY, 0).tex(maxU, minV).endVertex();
+
+        tess.draw();
+
+        this.fb.unbindFramebufferTexture();
+        GlStateManager.disableBlend();
+    }
+}
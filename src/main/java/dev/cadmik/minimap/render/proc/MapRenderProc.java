@@ -1,7 +1,8 @@
 package dev.cadmik.minimap.render.proc;
 
 import dev.cadmik.minimap.render.ChunkAtlas;
-import dev.cadmik.minimap.render.ChunkTile;
+import dev.cadmik.minimap.render.ChunkMesh;
+import dev.cadmik.minimap.render.TileLayer;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.FontRenderer;
 import net.minecraft.client.renderer.GlStateManager;
@@ -15,6 +16,20 @@ import org.lwjgl.opengl.GL11;
  * commonly used within all implementations.
  */
 public abstract class MapRenderProc {
+    /**
+     * The distance from the middle of the minimap to the edge of the
+     * rendered chunks, in (scaled) screen pixels. That's four chunks at the
+     * default zoom.
+     */
+    private static final double WINDOW_RADIUS = 64;
+
+    private final ChunkMesh mesh = new ChunkMesh();
+
+    /**
+     * The number of blocks per (scaled) screen pixel.
+     */
+    private double zoom = 1;
+
     /**
      * Renders all minimap components at respective screen coordinates.
      *
@@ -27,45 +42,90 @@ public abstract class MapRenderProc {
     public abstract void render(double screenX, double screenY, double camX, double camZ, double yaw);
 
     /**
-     * Renders all available chunks stored in ChunkAtlas.
+     * Returns the distance from the middle of the minimap to the furthest
+     * edge of anything it renders, including the cardinals.
+     *
+     * @return Rendered extent of the minimap.
+     */
+    public abstract double getExtent();
+
+    public double getZoom() {
+        return this.zoom;
+    }
+
+    /**
+     * Sets the number of blocks per (scaled) screen pixel. Zooming out shows
+     * a wider area within the same window, drawn from a coarser level of
+     * detail, so that about the same number of tiles is drawn at any zoom.
+     *
+     * @param zoom Number of blocks per screen pixel, {@code 1} by default.
+     */
+    public void setZoom(double zoom) {
+        this.zoom = zoom;
+    }
+
+    /**
+     * Returns the distance from the middle of the minimap to the edge of the
+     * rendered chunks, in blocks, at the current zoom.
+     *
+     * @return Viewing distance, in blocks.
+     */
+    public double getViewDistance() {
+        return WINDOW_RADIUS * this.zoom;
+    }
+
+    /**
+     * Returns the distance from the middle of the minimap to the edge of the
+     * rendered chunks, assuming no rotation.
+     *
+     * @return Radius of the chunk window, in screen pixels.
+     */
+    protected double getWindowRadius() {
+        return WINDOW_RADIUS;
+    }
+
+    /**
+     * Renders all available chunks stored in ChunkAtlas, from a mesh that's
+     * only rebuilt when the chunk tiles change, with one draw per texture
+     * page.
+     *
+     * <p> The level of detail is the coarsest one with at most as many blocks
+     * per texel as there are blocks per pixel. Unknown chunks are transparent
+     * in downsampled tiles and region super-tiles, and alpha tested away.
      *
      * @param x Player's world X coordinate.
      * @param z Player's world Z coordinate.
      */
     protected void renderChunks(double x, double z) {
-        Tessellator tess = Tessellator.getInstance();
-        WorldRenderer wr = tess.getWorldRenderer();
         ChunkAtlas atlas = ChunkAtlas.getInstance();
 
-        GlStateManager.color(1, 1, 1);
-        GlStateManager.enableTexture2D();
-        GlStateManager.bindTexture(atlas.getTextureHandle());
+        int level = 0;
+        while (level < atlas.getLodLevels() && 2 << level <= this.zoom) {
+            level++;
+        }
 
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        TileLayer layer = atlas.getLayer(level);
+        boolean alphaTest = layer.getScale() > 0;
 
-        wr.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
+        GlStateManager.color(1, 1, 1);
+        GlStateManager.enableTexture2D();
 
-        double chunkWidth = atlas.getSpriteWidth();
-        double chunkHeight = atlas.getSpriteHeight();
+        if (alphaTest) {
+            GlStateManager.enableAlpha();
+            GlStateManager.alphaFunc(GL11.GL_GREATER, 0.5f);
+        }
 
-        for (ChunkTile sprite : atlas) {
-            double minX = atlas.getSpriteX(sprite.getOffset());
-            double minY = atlas.getSpriteY(sprite.getOffset());
+        GlStateManager.pushMatrix();
+        GlStateManager.scale(1 / this.zoom, 1 / this.zoom, 1);
 
-            double maxX = minX + chunkWidth;
-            double maxY = minY + chunkHeight;
+        this.mesh.draw(layer, x, z);
 
-            double renderX = (sprite.getChunkX() << 4) - x;
-            double renderY = (sprite.getChunkZ() << 4) - z;
+        GlStateManager.popMatrix();
 
-            wr.pos(renderX, renderY, 0).tex(minX, minY).endVertex();
-            wr.pos(renderX, renderY + 16, 0).tex(minX, maxY).endVertex();
-            wr.pos(renderX + 16, renderY + 16, 0).tex(maxX, maxY).endVertex();
-            wr.pos(renderX + 16, renderY + 0, 0).tex(maxX, minY).endVertex();
+        if (alphaTest) {
+            GlStateManager.alphaFunc(GL11.GL_GREATER, 0.1f);
+            GlStateManager.disableAlpha();
         }
-
-        tess.draw();
     }
 
     /**
@@ -1,6 +1,5 @@
 package dev.cadmik.minimap.render.proc;
 
-import dev.cadmik.minimap.render.ChunkAtlas;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.ScaledResolution;
 import net.minecraft.client.renderer.GlStateManager;
@@ -20,8 +19,8 @@ public class ScissorRenderProc extends MapRenderProc {
      */
     @Override
     public void render(double screenX, double screenY, double camX, double camZ, double yaw) {
-        int windowDiag = (ChunkAtlas.getInstance().getChunkRadius() - 1) << 4;
-        float windowRadius = (float) Math.sqrt(windowDiag * windowDiag >> 1);
+        double windowDiag = this.getWindowRadius();
+        float windowRadius = (float) Math.sqrt(windowDiag * windowDiag / 2);
 
         // Would be a ton better if this was just a field in Minecraft.class.
         ScaledResolution res = new ScaledResolution(Minecraft.getMinecraft());
@@ -63,6 +62,18 @@ public class ScissorRenderProc extends MapRenderProc {
         GL11.glPopMatrix();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getExtent() {
+        double windowDiag = this.getWindowRadius();
+        double windowRadius = Math.sqrt(windowDiag * windowDiag / 2);
+
+        // Cardinals are furthest away in the corners, and 8 pixels tall.
+        return (windowRadius + 4) * Math.sqrt(2) + 8;
+    }
+
     private void renderBorder(double radius) {
         Tessellator tess = Tessellator.getInstance();
         WorldRenderer wr = tess.getWorldRenderer();
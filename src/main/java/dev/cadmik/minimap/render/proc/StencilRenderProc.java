@@ -1,6 +1,5 @@
 package dev.cadmik.minimap.render.proc;
 
-import dev.cadmik.minimap.render.ChunkAtlas;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.Tessellator;
 import net.minecraft.client.renderer.WorldRenderer;
@@ -18,7 +17,7 @@ public class StencilRenderProc extends MapRenderProc {
      */
     @Override
     public void render(double screenX, double screenY, double camX, double camZ, double yaw) {
-        int windowRadius = (ChunkAtlas.getInstance().getChunkRadius() - 1) << 4;
+        double windowRadius = this.getWindowRadius();
 
         GlStateManager.disableAlpha();
         GlStateManager.disableBlend();
@@ -63,7 +62,16 @@ public class StencilRenderProc extends MapRenderProc {
         GL11.glPopMatrix();
     }
 
-    private void renderBorder(int radius) {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getExtent() {
+        // Cardinals are centered on the border, and 8 pixels tall.
+        return this.getWindowRadius() + 4 + 8;
+    }
+
+    private void renderBorder(double radius) {
         Tessellator tess = Tessellator.getInstance();
         WorldRenderer wr = tess.getWorldRenderer();
 
@@ -0,0 +1,35 @@
+package dev.cadmik.minimap.stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free counting metric.
+ */
+public final class Counter {
+    private final String name;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public void increment() {
+        if (Stats.ENABLED) {
+            this.value.increment();
+        }
+    }
+
+    public void add(long amount) {
+        if (Stats.ENABLED) {
+            this.value.add(amount);
+        }
+    }
+
+    public long get() {
+        return this.value.sum();
+    }
+}
@@ -0,0 +1,57 @@
+package dev.cadmik.minimap.stats;
+
+/**
+ * The hot-path instrumentation of the minimap.
+ *
+ * <p> Recording is turned on with {@code -Dminimap.stats=true}. The flag is
+ * read once into a constant, so with recording off, every timer and counter
+ * call compiles down to nothing.
+ *
+ * <p> All metrics are cumulative since the game started, and are recorded
+ * without locks, so worker threads can record as well.
+ */
+public final class Stats {
+    public static final boolean ENABLED = Boolean.getBoolean("minimap.stats");
+
+    /**
+     * Time spent binding and releasing chunks as the player moves.
+     */
+    public static final Timer LOAD_CHUNKS = new Timer("loadChunks");
+
+    /**
+     * Time spent colorizing a single chunk, on the worker threads.
+     */
+    public static final Timer COLORIZE = new Timer("colorize");
+
+    /**
+     * Time spent staging and uploading tiles per frame.
+     */
+    public static final Timer UPLOAD_TILES = new Timer("uploadTiles");
+
+    /**
+     * Time spent rendering the minimap per frame.
+     */
+    public static final Timer RENDER = new Timer("render");
+
+    public static final Counter PACKETS = new Counter("packetsIntercepted");
+    public static final Counter CHUNKS_COLORIZED = new Counter("chunksColorized");
+    public static final Counter UPLOADS = new Counter("uploadsIssued");
+    public static final Counter UPLOAD_BYTES = new Counter("bytesUploaded");
+    public static final Counter UPLOADS_SKIPPED = new Counter("uploadsSkipped");
+
+    /**
+     * Block updates absorbed by an already marked chunk or column, and the
+     * chunk recolors and column batches they were flushed as.
+     */
+    public static final Counter UPDATES_COALESCED = new Counter("updatesCoalesced");
+    public static final Counter UPDATES_PROCESSED = new Counter("updatesProcessed");
+
+    static final Timer[] TIMERS = {LOAD_CHUNKS, COLORIZE, UPLOAD_TILES, RENDER};
+    static final Counter[] COUNTERS = {
+            PACKETS, CHUNKS_COLORIZED, UPLOADS, UPLOAD_BYTES, UPLOADS_SKIPPED,
+            UPDATES_COALESCED, UPDATES_PROCESSED
+    };
+
+    private Stats() {
+    }
+}
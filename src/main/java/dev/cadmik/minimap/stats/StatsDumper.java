@@ -0,0 +1,81 @@
+package dev.cadmik.minimap.stats;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically appends a snapshot of every timer and counter to a CSV file,
+ * from a background thread.
+ *
+ * <p> Each snapshot is one row per metric. As metrics are cumulative,
+ * differences between snapshots give the cost over each period.
+ */
+public final class StatsDumper {
+    private static final Logger logger = LogManager.getLogger("Minimap");
+
+    private static final String HEADER = "time_ms,metric,count,mean_ns,p50_ns,p99_ns,max_ns";
+
+    private final File file;
+
+    private StatsDumper(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Starts dumping to {@code minimap-stats.csv} in the specified
+     * directory. The interval defaults to 10 seconds, and can be changed with
+     * {@code -Dminimap.stats.interval=<seconds>}.
+     *
+     * @param directory Run directory of the game.
+     */
+    public static void start(File directory) {
+        StatsDumper dumper = new StatsDumper(new File(directory, "minimap-stats.csv"));
+        long interval = Long.getLong("minimap.stats.interval", 10);
+
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Minimap Stats Dumper");
+
+            // Never keep the game from shutting down.
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+
+            return t;
+        });
+
+        executor.scheduleAtFixedRate(dumper::dump, interval, interval, TimeUnit.SECONDS);
+    }
+
+    private void dump() {
+        boolean fresh = !this.file.exists();
+        long time = System.currentTimeMillis();
+
+        try (PrintWriter out = new PrintWriter(new FileWriter(this.file, true))) {
+            if (fresh) {
+                out.println(HEADER);
+            }
+
+            for (Timer timer : Stats.TIMERS) {
+                out.printf(
+                        Locale.ROOT, "%d,%s,%d,%.0f,%d,%d,%d%n",
+                        time, timer.getName(), timer.getCount(), timer.getMean(),
+                        timer.getPercentile(0.5), timer.getPercentile(0.99), timer.getMax()
+                );
+            }
+
+            for (Counter counter : Stats.COUNTERS) {
+                out.printf(Locale.ROOT, "%d,%s,%d,,,,%n", time, counter.getName(), counter.get());
+            }
+        } catch (IOException e) {
+            logger.warn("Couldn't write minimap stats to {}", this.file, e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package dev.cadmik.minimap.stats;
+
+import net.minecraft.client.settings.KeyBinding;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import net.minecraftforge.fml.client.registry.ClientRegistry;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.InputEvent;
+import org.lwjgl.input.Keyboard;
+
+import java.util.List;
+
+/**
+ * The singleton debug overlay of the minimap instrumentation, listing every
+ * timer and counter below the F3 screen's right-hand column. Toggled with a
+ * key binding, F7 by default.
+ */
+public class StatsOverlay {
+    private static final StatsOverlay instance = new StatsOverlay();
+
+    private final KeyBinding toggleKey = new KeyBinding("key.minimap.stats", Keyboard.KEY_F7, "key.categories.minimap");
+    private boolean visible;
+
+    public static StatsOverlay getInstance() {
+        return instance;
+    }
+
+    private StatsOverlay() {
+        ClientRegistry.registerKeyBinding(this.toggleKey);
+    }
+
+    @SubscribeEvent
+    public void keyPressed(InputEvent.KeyInputEvent e) {
+        if (this.toggleKey.isPressed()) {
+            this.visible = !this.visible;
+        }
+    }
+
+    @SubscribeEvent
+    public void renderText(RenderGameOverlayEvent.Text e) {
+        if (!this.visible) {
+            return;
+        }
+
+        List<String> lines = e.right;
+        lines.add("");
+        lines.add("Minimap");
+
+        for (Timer timer : Stats.TIMERS) {
+            lines.add(String.format(
+                    "%s: %.1f us avg, %.1f us p99, %d",
+                    timer.getName(),
+                    timer.getMean() / 1000,
+                    timer.getPercentile(0.99) / 1000.0,
+                    timer.getCount()
+            ));
+        }
+
+        for (Counter counter : Stats.COUNTERS) {
+            lines.add(counter.getName() + ": " + counter.get());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package dev.cadmik.minimap.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free timing metric, with a histogram of durations.
+ *
+ * <p> Durations fall into power-of-two buckets of nanoseconds, so that
+ * recording is a single atomic increment, and percentiles are accurate to
+ * within a factor of two.
+ *
+ * <p> Typical use:
+ * <pre>{@code
+ * long start = Stats.RENDER.start();
+ * ...
+ * Stats.RENDER.stop(start);
+ * }</pre>
+ */
+public final class Timer {
+    private static final int BUCKETS = 64;
+
+    private final String name;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Bucket {@code i} counts durations below {@code 2^i} nanoseconds, and
+     * at or above {@code 2^(i - 1)}.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    Timer(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Starts timing.
+     *
+     * @return Start time to pass to {@code Timer::stop}.
+     */
+    public long start() {
+        return Stats.ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Stops timing, and records the elapsed duration.
+     *
+     * @param start Start time, as returned by {@code Timer::start}.
+     */
+    public void stop(long start) {
+        if (Stats.ENABLED) {
+            this.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records the specified duration.
+     *
+     * @param nanos Duration in nanoseconds.
+     */
+    void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+
+        this.count.increment();
+        this.total.add(nanos);
+        this.max.accumulateAndGet(nanos, Math::max);
+        this.buckets.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(nanos), BUCKETS - 1));
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns the mean duration.
+     *
+     * @return Mean duration in nanoseconds, {@code 0} if nothing was recorded.
+     */
+    public double getMean() {
+        long count = this.count.sum();
+        return count == 0 ? 0 : (double) this.total.sum() / count;
+    }
+
+    /**
+     * Returns an upper bound of the specified percentile of durations.
+     *
+     * @param p Percentile, from {@code 0} to {@code 1}.
+     * @return Duration in nanoseconds, {@code 0} if nothing was recorded.
+     */
+    public long getPercentile(double p) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+            total += counts[i];
+        }
+
+        long rank = (long) Math.ceil(p * total);
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(1L << i, this.max.get());
+            }
+        }
+
+        return 0;
+    }
+}
@@ -0,0 +1,108 @@
+package dev.cadmik.minimap.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A memory-mapped file holding the tiles of a 32x32 chunk region, in
+ * fixed-size pages.
+ *
+ * <p> Each page consists of a header (magic number and content hash),
+ * followed by the tile's 256 packed column scans and 16 north edge heights.
+ * Pages of tiles that were never written are all zeroes, and thus fail the
+ * magic number check.
+ */
+final class RegionFile {
+    /**
+     * Marks a written page. Bumped whenever the page layout changes.
+     */
+    private static final int MAGIC = 0x4d4d5401;
+
+    static final int PAGE_SIZE = 2048;
+    static final int REGION_SIZE = PAGE_SIZE << 10;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int NORTH_OFFSET = HEADER_SIZE + (256 << 2);
+
+    private final MappedByteBuffer buffer;
+
+    RegionFile(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() != REGION_SIZE) {
+                raf.setLength(REGION_SIZE);
+            }
+
+            // The mapping stays valid after the channel is closed.
+            this.buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, REGION_SIZE);
+        }
+    }
+
+    /**
+     * Reads the page of the specified chunk.
+     *
+     * @param chunkX       Chunk's X coordinate.
+     * @param chunkZ       Chunk's Z coordinate.
+     * @param scans        Destination of packed column scans (256 entries).
+     * @param northHeights Destination of north edge heights (16 entries).
+     * @return Stored content hash, {@code 0} if the page was never written.
+     */
+    long read(int chunkX, int chunkZ, int[] scans, int[] northHeights) {
+        int base = pageOffset(chunkX, chunkZ);
+
+        if (this.buffer.getInt(base) != MAGIC) {
+            return 0;
+        }
+
+        for (int i = 0; i < 256; i++) {
+            scans[i] = this.buffer.getInt(base + HEADER_SIZE + (i << 2));
+        }
+
+        for (int i = 0; i < 16; i++) {
+            northHeights[i] = this.buffer.getInt(base + NORTH_OFFSET + (i << 2));
+        }
+
+        return this.buffer.getLong(base + 8);
+    }
+
+    /**
+     * Writes the page of the specified chunk.
+     *
+     * @param chunkX       Chunk's X coordinate.
+     * @param chunkZ       Chunk's Z coordinate.
+     * @param hash         Content hash of the chunk. Must not be {@code 0}.
+     * @param scans        Packed column scans (256 entries).
+     * @param northHeights North edge heights (16 entries).
+     */
+    void write(int chunkX, int chunkZ, long hash, int[] scans, int[] northHeights) {
+        int base = pageOffset(chunkX, chunkZ);
+
+        // Invalidated first and marked valid last, so a torn page is never
+        // mistaken for a valid one, even when overwriting a valid page.
+        this.buffer.putInt(base, 0);
+
+        for (int i = 0; i < 256; i++) {
+            this.buffer.putInt(base + HEADER_SIZE + (i << 2), scans[i]);
+        }
+
+        for (int i = 0; i < 16; i++) {
+            this.buffer.putInt(base + NORTH_OFFSET + (i << 2), northHeights[i]);
+        }
+
+        this.buffer.putLong(base + 8, hash);
+        this.buffer.putInt(base, MAGIC);
+    }
+
+    /**
+     * Flushes any modified pages to disk.
+     */
+    void flush() {
+        this.buffer.force();
+    }
+
+    private static int pageOffset(int chunkX, int chunkZ) {
+        return ((chunkZ & 31) << 5 | chunkX & 31) * PAGE_SIZE;
+    }
+}
@@ -0,0 +1,161 @@
+package dev.cadmik.minimap.store;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ServerData;
+import net.minecraft.world.World;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A persistent store of colorized chunk tiles for a single server dimension.
+ *
+ * <p> Tiles are kept in memory-mapped region files under the run directory,
+ * keyed by server address and dimension, so that explored territory shows
+ * up immediately after rejoining. Each tile is stored along with a content
+ * hash of its chunk, so stale tiles can be detected and refreshed.
+ *
+ * <p> Only to be used from the client thread.
+ */
+public final class TileStore {
+    private static final Logger logger = LogManager.getLogger("Minimap");
+
+    /**
+     * The number of region files kept mapped at once.
+     */
+    private static final int OPEN_REGIONS = 16;
+
+    private final File directory;
+    private final Map<Long, RegionFile> regions = new LinkedHashMap<Long, RegionFile>(OPEN_REGIONS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, RegionFile> eldest) {
+            if (this.size() > OPEN_REGIONS) {
+                eldest.getValue().flush();
+                return true;
+            }
+
+            return false;
+        }
+    };
+
+    /**
+     * Set if a region file couldn't be opened, after which the store stops
+     * trying, rather than failing on every single tile.
+     */
+    private boolean failed;
+
+    private TileStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the tile store of the specified client world's server and
+     * dimension.
+     *
+     * @param w Client world.
+     * @return Tile store of the world, or {@code null} if its directory
+     * couldn't be created.
+     */
+    public static TileStore forWorld(World w) {
+        Minecraft mc = Minecraft.getMinecraft();
+
+        String server;
+        ServerData data = mc.getCurrentServerData();
+
+        if (data != null) {
+            server = data.serverIP;
+        } else if (mc.getIntegratedServer() != null) {
+            server = "local_" + mc.getIntegratedServer().getFolderName();
+        } else {
+            return null;
+        }
+
+        File directory = new File(
+                mc.mcDataDir,
+                "minimap/tiles/" + sanitize(server) + "/DIM" + w.provider.getDimensionId()
+        );
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            logger.warn("Couldn't create tile store directory {}", directory);
+            return null;
+        }
+
+        return new TileStore(directory);
+    }
+
+    /**
+     * Reads the stored tile of the specified chunk.
+     *
+     * @param chunkX       Chunk's X coordinate.
+     * @param chunkZ       Chunk's Z coordinate.
+     * @param scans        Destination of packed column scans (256 entries).
+     * @param northHeights Destination of north edge heights (16 entries).
+     * @return Stored content hash, {@code 0} if no tile is stored.
+     */
+    public long read(int chunkX, int chunkZ, int[] scans, int[] northHeights) {
+        RegionFile region = this.getRegion(chunkX, chunkZ);
+        return region == null ? 0 : region.read(chunkX, chunkZ, scans, northHeights);
+    }
+
+    /**
+     * Stores the tile of the specified chunk.
+     *
+     * @param chunkX       Chunk's X coordinate.
+     * @param chunkZ       Chunk's Z coordinate.
+     * @param hash         Content hash of the chunk. Must not be {@code 0}.
+     * @param scans        Packed column scans (256 entries).
+     * @param northHeights North edge heights (16 entries).
+     */
+    public void write(int chunkX, int chunkZ, long hash, int[] scans, int[] northHeights) {
+        RegionFile region = this.getRegion(chunkX, chunkZ);
+        if (region != null) {
+            region.write(chunkX, chunkZ, hash, scans, northHeights);
+        }
+    }
+
+    /**
+     * Flushes and releases all region files.
+     */
+    public void close() {
+        for (RegionFile region : this.regions.values()) {
+            region.flush();
+        }
+
+        this.regions.clear();
+    }
+
+    private RegionFile getRegion(int chunkX, int chunkZ) {
+        if (this.failed) {
+            return null;
+        }
+
+        int regionX = chunkX >> 5;
+        int regionZ = chunkZ >> 5;
+        long key = (long) regionX << 32 | regionZ & 0xffffffffL;
+
+        RegionFile region = this.regions.get(key);
+        if (region == null) {
+            File file = new File(this.directory, "r." + regionX + "." + regionZ + ".tiles");
+
+            try {
+                region = new RegionFile(file);
+            } catch (IOException e) {
+                logger.warn("Couldn't open tile region {}, disabling tile store", file, e);
+                this.failed = true;
+                return null;
+            }
+
+            this.regions.put(key, region);
+        }
+
+        return region;
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
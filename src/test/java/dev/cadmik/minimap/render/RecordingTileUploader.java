@@ -0,0 +1,131 @@
+package dev.cadmik.minimap.render;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A tile uploader that records uploads instead of issuing them, so that
+ * upload behaviour can be inspected without a GL context.
+ *
+ * <p> Every upload must follow its own reservation, and stay within it, or
+ * the recorder throws.
+ */
+final class RecordingTileUploader implements TileUploader {
+    /**
+     * A single recorded upload.
+     */
+    static final class Upload {
+        final int x, y, width, height;
+        final int frame;
+
+        /**
+         * Uploaded pixels, indexed by {@code y * width + x}.
+         */
+        final int[] pixels;
+
+        Upload(int x, int y, int width, int height, int frame, int[] pixels) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.frame = frame;
+            this.pixels = pixels;
+        }
+    }
+
+    private final IntBuffer buffer;
+    private final List<Upload> uploads = new ArrayList<>();
+    private int frame;
+
+    /**
+     * The number of pixels reserved for the next upload, {@code -1} if none.
+     */
+    private int reserved = -1;
+
+    /**
+     * Creates an uploader for the specified maximum upload size.
+     *
+     * @param capacity Maximum number of pixels per upload.
+     */
+    RecordingTileUploader(int capacity) {
+        this.buffer = IntBuffer.allocate(capacity);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int reserve(int size) {
+        if (size > this.buffer.capacity()) {
+            throw new IllegalArgumentException("Upload of " + size + " pixels exceeds capacity.");
+        }
+
+        if (this.reserved != -1) {
+            throw new IllegalStateException("Reserved again before uploading.");
+        }
+
+        // Poison the reserved range, so that missed writes stand out.
+        Arrays.fill(this.buffer.array(), 0, size, 0xdeadbeef);
+        this.reserved = size;
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IntBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void upload(int base, int x, int y, int width, int height) {
+        if (base < 0 || base + width * height > this.reserved) {
+            throw new IllegalStateException("Upload outside of its reservation.");
+        }
+
+        this.reserved = -1;
+
+        int[] pixels = Arrays.copyOfRange(this.buffer.array(), base, base + width * height);
+        this.uploads.add(new Upload(x, y, width, height, this.frame, pixels));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endFrame() {
+        this.frame++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete() {
+        this.uploads.clear();
+    }
+
+    /**
+     * Returns all uploads recorded so far, in order.
+     *
+     * @return Recorded uploads.
+     */
+    List<Upload> getUploads() {
+        return this.uploads;
+    }
+
+    /**
+     * Returns the number of frames ended so far.
+     *
+     * @return Number of ended frames.
+     */
+    int getFrame() {
+        return this.frame;
+    }
+}
@@ -0,0 +1,120 @@
+package dev.cadmik.minimap.render;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetainedSlotsTest {
+    private final RetainedSlots slots = new RetainedSlots(8);
+
+    @Test
+    public void emptyListPollsNothing() {
+        assertEquals(0, this.slots.size());
+        assertEquals(-1, this.slots.poll());
+    }
+
+    @Test
+    public void addedSlotsArePolledLeastRecentFirst() {
+        this.slots.add(3);
+        this.slots.add(0);
+        this.slots.add(7);
+
+        assertEquals(3, this.slots.size());
+        assertTrue(this.slots.contains(0));
+        assertFalse(this.slots.contains(1));
+
+        assertPolled(3, 0, 7);
+    }
+
+    @Test
+    public void readdedSlotBecomesMostRecent() {
+        this.slots.add(1);
+        this.slots.add(2);
+        this.slots.add(3);
+        this.slots.add(1);
+
+        assertEquals(3, this.slots.size());
+        assertPolled(2, 3, 1);
+    }
+
+    @Test
+    public void removeHead() {
+        this.addAll(1, 2, 3);
+
+        assertTrue(this.slots.remove(1));
+        assertFalse(this.slots.contains(1));
+        assertPolled(2, 3);
+    }
+
+    @Test
+    public void removeMiddle() {
+        this.addAll(1, 2, 3);
+
+        assertTrue(this.slots.remove(2));
+        assertPolled(1, 3);
+    }
+
+    @Test
+    public void removeTail() {
+        this.addAll(1, 2, 3);
+
+        assertTrue(this.slots.remove(3));
+        this.slots.add(4);
+        assertPolled(1, 2, 4);
+    }
+
+    @Test
+    public void removeOnlySlot() {
+        this.slots.add(5);
+
+        assertTrue(this.slots.remove(5));
+        assertEquals(0, this.slots.size());
+        assertEquals(-1, this.slots.poll());
+
+        this.slots.add(6);
+        assertPolled(6);
+    }
+
+    @Test
+    public void removeOfUnretainedSlotDoesNothing() {
+        this.addAll(1, 2);
+
+        assertFalse(this.slots.remove(3));
+        assertEquals(2, this.slots.size());
+        assertPolled(1, 2);
+    }
+
+    @Test
+    public void clearForgetsAllSlots() {
+        this.addAll(0, 4, 7);
+        this.slots.clear();
+
+        assertEquals(0, this.slots.size());
+        for (int offs = 0; offs < 8; offs++) {
+            assertFalse(this.slots.contains(offs));
+        }
+
+        assertEquals(-1, this.slots.poll());
+
+        this.addAll(7, 0);
+        assertPolled(7, 0);
+    }
+
+    private void addAll(int... offsets) {
+        for (int offs : offsets) {
+            this.slots.add(offs);
+        }
+    }
+
+    private void assertPolled(int... expected) {
+        for (int offs : expected) {
+            assertEquals(offs, this.slots.poll());
+            assertFalse(this.slots.contains(offs));
+        }
+
+        assertEquals(0, this.slots.size());
+        assertEquals(-1, this.slots.poll());
+    }
+}
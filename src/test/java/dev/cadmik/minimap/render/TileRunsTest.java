@@ -0,0 +1,134 @@
+package dev.cadmik.minimap.render;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TileRunsTest {
+    /**
+     * Forty tiles on 64x64 pages, so four tiles per row, sixteen per page,
+     * and three pages.
+     */
+    private final TileLayout layout = new TileLayout(40, 4, 64);
+
+    private final RecordingTileUploader uploader = new RecordingTileUploader(256 * 16);
+
+    @Test
+    public void layoutSpillsIntoFurtherPages() {
+        assertEquals(64, this.layout.getTextureWidth());
+        assertEquals(64, this.layout.getTextureHeight());
+        assertEquals(3, this.layout.getPageCount());
+
+        assertEquals(0, this.layout.getPage(15));
+        assertEquals(1, this.layout.getPage(16));
+        assertEquals(0, this.layout.getRow(16));
+        assertEquals(48, this.layout.getPixelY(31));
+    }
+
+    @Test
+    public void rowStartsEveryFourTiles() {
+        for (int offs = 0; offs < 40; offs++) {
+            assertEquals(offs % 4 == 0, this.layout.isRowStart(offs));
+        }
+    }
+
+    @Test
+    public void runsEndAtGapsAndRowStarts() {
+        int[] offsets = {0, 1, 2, 3, 4, 5, 9, 14, 15, 16};
+
+        assertEquals(4, TileRuns.getRunLength(offsets, 0, offsets.length, this.layout));
+        assertEquals(2, TileRuns.getRunLength(offsets, 4, offsets.length, this.layout));
+        assertEquals(1, TileRuns.getRunLength(offsets, 6, offsets.length, this.layout));
+
+        // Offset 16 starts a new page, not just a new row.
+        assertEquals(2, TileRuns.getRunLength(offsets, 7, offsets.length, this.layout));
+        assertEquals(1, TileRuns.getRunLength(offsets, 9, offsets.length, this.layout));
+    }
+
+    @Test
+    public void runLengthStopsAtEnd() {
+        int[] offsets = {4, 5, 6, 7};
+
+        assertEquals(2, TileRuns.getRunLength(offsets, 0, 2, this.layout));
+    }
+
+    @Test
+    public void runIsUploadedSideBySide() {
+        TileRuns.upload(this.uploader, this.layout, 21, 3, TileRunsTest::tile);
+
+        List<RecordingTileUploader.Upload> uploads = this.uploader.getUploads();
+        assertEquals(1, uploads.size());
+
+        RecordingTileUploader.Upload upload = uploads.get(0);
+        assertEquals(16, upload.x);
+        assertEquals(16, upload.y);
+        assertEquals(48, upload.width);
+        assertEquals(16, upload.height);
+
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 48; x++) {
+                int offs = 21 + (x >> 4);
+                assertEquals(tile(offs)[z << 4 | x & 15], upload.pixels[z * 48 + x]);
+            }
+        }
+    }
+
+    @Test
+    public void everyUploadHasItsOwnReservation() {
+        int[] offsets = {0, 1, 2, 3, 4, 5, 9};
+
+        for (int run = 0; run < offsets.length; ) {
+            int length = TileRuns.getRunLength(offsets, run, offsets.length, this.layout);
+            TileRuns.upload(this.uploader, this.layout, offsets[run], length, TileRunsTest::tile);
+            run += length;
+        }
+
+        this.uploader.endFrame();
+
+        List<RecordingTileUploader.Upload> uploads = this.uploader.getUploads();
+        assertEquals(3, uploads.size());
+        assertEquals(64, uploads.get(0).width);
+        assertEquals(32, uploads.get(1).width);
+        assertEquals(16, uploads.get(2).width);
+
+        for (RecordingTileUploader.Upload upload : uploads) {
+            assertEquals(0, upload.frame);
+
+            // No pixel was left unwritten.
+            for (int pixel : upload.pixels) {
+                assertFalse(pixel == 0xdeadbeef);
+            }
+        }
+
+        assertEquals(1, this.uploader.getFrame());
+    }
+
+    @Test
+    public void uploadWithoutReservationIsRejected() {
+        boolean thrown = false;
+
+        try {
+            this.uploader.upload(0, 0, 0, 16, 16);
+        } catch (IllegalStateException e) {
+            thrown = true;
+        }
+
+        assertTrue(thrown);
+    }
+
+    /**
+     * Returns distinct pixels for every tile and texel.
+     */
+    private static int[] tile(int offs) {
+        int[] pixels = new int[256];
+        for (int i = 0; i < 256; i++) {
+            pixels[i] = offs << 8 | i;
+        }
+
+        return pixels;
+    }
+}
@@ -0,0 +1,120 @@
+package dev.cadmik.minimap.render.color;
+
+import net.minecraft.block.material.MapColor;
+import org.junit.Test;
+
+import static dev.cadmik.minimap.render.color.SyntheticChunk.STONE;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.STONE_COLOR;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.WATER;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.WATER_COLOR;
+import static org.junit.Assert.assertEquals;
+
+public class ChunkColorizerTest {
+    private static final int DARK = 0;
+    private static final int FLAT = 1;
+    private static final int BRIGHT = 2;
+
+    private final ChunkColorizer colorizer = new ChunkColorizer(SyntheticChunk.PALETTE);
+
+    private final int[] pixels = new int[256];
+    private final int[] scans = new int[256];
+    private final int[] northHeights = new int[16];
+
+    @Test
+    public void flatTerrainWithoutNorthEdgeIsFlat() {
+        this.colorize(new SyntheticChunk().layer(0, 63, STONE).build());
+
+        for (int i = 0; i < 256; i++) {
+            assertEquals(shaded(STONE_COLOR, FLAT), this.pixels[i]);
+        }
+
+        for (int x = 0; x < 16; x++) {
+            assertEquals(-1, this.northHeights[x]);
+        }
+    }
+
+    @Test
+    public void higherNorthEdgeDarkensTopRow() {
+        this.colorize(new SyntheticChunk().layer(0, 63, STONE).northEdge(70, STONE).build());
+
+        for (int x = 0; x < 16; x++) {
+            assertEquals(70, this.northHeights[x]);
+            assertEquals(shaded(STONE_COLOR, DARK), this.pixels[x]);
+            assertEquals(shaded(STONE_COLOR, FLAT), this.pixels[x | 1 << 4]);
+        }
+    }
+
+    @Test
+    public void lowerNorthEdgeBrightensTopRow() {
+        this.colorize(new SyntheticChunk().layer(0, 63, STONE).northEdge(40, STONE).build());
+
+        for (int x = 0; x < 16; x++) {
+            assertEquals(shaded(STONE_COLOR, BRIGHT), this.pixels[x]);
+            assertEquals(shaded(STONE_COLOR, FLAT), this.pixels[x | 1 << 4]);
+        }
+    }
+
+    @Test
+    public void stepIsShadedOnBothSides() {
+        SyntheticChunk chunk = new SyntheticChunk().layer(0, 63, STONE);
+        for (int x = 0; x < 16; x++) {
+            chunk.set(x, 64, 5, STONE);
+        }
+
+        this.colorize(chunk.build());
+
+        for (int x = 0; x < 16; x++) {
+            assertEquals(shaded(STONE_COLOR, FLAT), this.pixels[x | 4 << 4]);
+            assertEquals(shaded(STONE_COLOR, BRIGHT), this.pixels[x | 5 << 4]);
+            assertEquals(shaded(STONE_COLOR, DARK), this.pixels[x | 6 << 4]);
+        }
+    }
+
+    @Test
+    public void shallowWaterIsBright() {
+        this.colorize(new SyntheticChunk().layer(0, 62, STONE).layer(63, 63, WATER).build());
+
+        for (int i = 0; i < 256; i++) {
+            assertEquals(shaded(WATER_COLOR, BRIGHT), this.pixels[i]);
+        }
+    }
+
+    @Test
+    public void deepWaterIsDark() {
+        this.colorize(new SyntheticChunk().layer(0, 39, STONE).layer(40, 63, WATER).build());
+
+        for (int i = 0; i < 256; i++) {
+            assertEquals(shaded(WATER_COLOR, DARK), this.pixels[i]);
+        }
+    }
+
+    @Test
+    public void mediumWaterIsDithered() {
+        // A depth of 3 dithers between bright and flat in a checkerboard.
+        this.colorize(new SyntheticChunk().layer(0, 60, STONE).layer(61, 63, WATER).build());
+
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                int shade = ((x ^ z) & 1) == 0 ? BRIGHT : FLAT;
+                assertEquals(shaded(WATER_COLOR, shade), this.pixels[x | z << 4]);
+            }
+        }
+    }
+
+    @Test
+    public void voidIsCheckered() {
+        this.colorize(new SyntheticChunk().build());
+
+        assertEquals(0x2d2d5a, this.pixels[0]);
+        assertEquals(0x1e1e3c, this.pixels[1]);
+        assertEquals(0x2d2d5a, this.pixels[4]);
+    }
+
+    private void colorize(ChunkSnapshot src) {
+        this.colorizer.colorize(src, this.pixels, this.scans, this.northHeights);
+    }
+
+    private static int shaded(int colorIndex, int shade) {
+        return MapColor.mapColorArray[colorIndex].func_151643_b(shade);
+    }
+}
@@ -0,0 +1,87 @@
+package dev.cadmik.minimap.render.color;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ChunkSurfaceTest {
+    @Test
+    public void identicalSurfacesHaveSameFingerprint() {
+        ChunkSurface a = new ChunkSurface(0, 0, scans(), northHeights());
+        ChunkSurface b = new ChunkSurface(3, -7, scans(), northHeights());
+
+        assertEquals(a.getFingerprint(), b.getFingerprint());
+    }
+
+    @Test
+    public void changedScanAltersFingerprint() {
+        int[] scans = scans();
+        ChunkSurface a = new ChunkSurface(0, 0, scans, northHeights());
+
+        scans[9 << 4 | 5]++;
+        ChunkSurface b = new ChunkSurface(0, 0, scans, northHeights());
+
+        assertNotEquals(a.getFingerprint(), b.getFingerprint());
+    }
+
+    @Test
+    public void changedNorthHeightAltersFingerprint() {
+        int[] northHeights = northHeights();
+        ChunkSurface a = new ChunkSurface(0, 0, scans(), northHeights);
+
+        northHeights[15] = -1;
+        ChunkSurface b = new ChunkSurface(0, 0, scans(), northHeights);
+
+        assertNotEquals(a.getFingerprint(), b.getFingerprint());
+    }
+
+    @Test
+    public void fingerprintMatchesAtAnyOffset() {
+        int[] scans = new int[3 + 256];
+        int[] northHeights = new int[5 + 16];
+        System.arraycopy(scans(), 0, scans, 3, 256);
+        System.arraycopy(northHeights(), 0, northHeights, 5, 16);
+
+        ChunkSurface surface = new ChunkSurface(0, 0, scans(), northHeights());
+
+        assertEquals(surface.getFingerprint(), ChunkSurface.computeFingerprint(scans, 3, northHeights, 5));
+    }
+
+    @Test
+    public void arraysAreCopied() {
+        int[] scans = scans();
+        int[] northHeights = northHeights();
+        ChunkSurface surface = new ChunkSurface(0, 0, scans, northHeights);
+        long fingerprint = surface.getFingerprint();
+
+        scans[0] = -1;
+        northHeights[0] = 255;
+
+        assertEquals(scans()[0], surface.getScan(0, 0));
+        assertEquals(northHeights()[0], surface.getNorthHeight(0));
+        assertEquals(fingerprint, surface.getFingerprint());
+        assertEquals(fingerprint, ChunkSurface.computeFingerprint(scans(), 0, northHeights(), 0));
+    }
+
+    /**
+     * Returns distinct scan results for every column.
+     */
+    private static int[] scans() {
+        int[] scans = new int[256];
+        for (int i = 0; i < 256; i++) {
+            scans[i] = 64 + (i & 7) | (i & 3) << 9 | (1 + i % 12) << 18;
+        }
+
+        return scans;
+    }
+
+    private static int[] northHeights() {
+        int[] northHeights = new int[16];
+        for (int x = 0; x < 16; x++) {
+            northHeights[x] = 60 + x;
+        }
+
+        return northHeights;
+    }
+}
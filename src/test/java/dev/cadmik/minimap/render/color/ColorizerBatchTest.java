@@ -0,0 +1,44 @@
+package dev.cadmik.minimap.render.color;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ColorizerBatchTest {
+    private final ChunkSnapshot snapshot = new SyntheticChunk().build();
+
+    @Test
+    public void copyOutlivesClear() {
+        ColorizerBatch batch = new ColorizerBatch();
+        batch.add(this.snapshot, 3, 7, 11L);
+        batch.add(this.snapshot, 4, 8, 12L);
+
+        ColorizerBatch copy = batch.copy();
+        batch.clear();
+        batch.add(this.snapshot, 5, 9, 13L);
+
+        assertEquals(1, batch.size());
+        assertEquals(2, copy.size());
+        assertSame(this.snapshot, copy.getSnapshot(1));
+        assertEquals(4, copy.getOffset(1));
+        assertEquals(8, copy.getStamp(1));
+        assertEquals(12L, copy.getExpectedHash(1));
+    }
+
+    @Test
+    public void batchGrowsPastInitialCapacity() {
+        ColorizerBatch batch = new ColorizerBatch();
+        for (int i = 0; i < 100; i++) {
+            batch.add(this.snapshot, i, i, i);
+        }
+
+        ColorizerBatch copy = batch.copy();
+        copy.add(this.snapshot, 100, 100, 100);
+
+        assertEquals(100, batch.size());
+        assertEquals(101, copy.size());
+        assertEquals(99, copy.getOffset(99));
+        assertEquals(100, copy.getOffset(100));
+    }
+}
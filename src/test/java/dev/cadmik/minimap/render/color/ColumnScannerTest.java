@@ -0,0 +1,96 @@
+package dev.cadmik.minimap.render.color;
+
+import org.junit.Test;
+
+import static dev.cadmik.minimap.render.color.SyntheticChunk.GRASS;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.GRASS_COLOR;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.STONE;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.STONE_COLOR;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.WATER;
+import static dev.cadmik.minimap.render.color.SyntheticChunk.WATER_COLOR;
+import static org.junit.Assert.assertEquals;
+
+public class ColumnScannerTest {
+    private final ColumnScanner scanner = new ColumnScanner(SyntheticChunk.PALETTE);
+
+    @Test
+    public void scanStartsAtHeightMap() {
+        // The grass block lies above the heightmap, like a non-opaque block
+        // would, so it's never reached.
+        ChunkSnapshot src = new SyntheticChunk()
+                .column(3, 4, 0, 10, STONE)
+                .set(3, 20, 4, GRASS)
+                .height(3, 4, 11)
+                .build();
+
+        int scan = this.scanner.scan(src, 3, 4);
+
+        assertEquals(10, ColumnScanner.getHeight(scan));
+        assertEquals(STONE_COLOR, ColumnScanner.getColorIndex(scan));
+    }
+
+    @Test
+    public void scanWithoutHeightMapStartsAtTopmostSection() {
+        ChunkSnapshot src = new SyntheticChunk()
+                .column(3, 4, 0, 10, STONE)
+                .set(3, 20, 4, GRASS)
+                .buildWithoutHeightMap();
+
+        int scan = this.scanner.scan(src, 3, 4);
+
+        assertEquals(20, ColumnScanner.getHeight(scan));
+        assertEquals(GRASS_COLOR, ColumnScanner.getColorIndex(scan));
+    }
+
+    @Test
+    public void scanSkipsEmptySections() {
+        ChunkSnapshot src = new SyntheticChunk()
+                .set(7, 5, 9, STONE)
+                .height(7, 9, 200)
+                .build();
+
+        int scan = this.scanner.scan(src, 7, 9);
+
+        assertEquals(5, ColumnScanner.getHeight(scan));
+        assertEquals(STONE_COLOR, ColumnScanner.getColorIndex(scan));
+        assertEquals(0, ColumnScanner.getDepth(scan));
+    }
+
+    @Test
+    public void scanMeasuresWaterDepth() {
+        ChunkSnapshot src = new SyntheticChunk()
+                .column(0, 0, 0, 4, STONE)
+                .column(0, 0, 5, 9, WATER)
+                .build();
+
+        int scan = this.scanner.scan(src, 0, 0);
+
+        assertEquals(9, ColumnScanner.getHeight(scan));
+        assertEquals(5, ColumnScanner.getDepth(scan));
+        assertEquals(WATER_COLOR, ColumnScanner.getColorIndex(scan));
+    }
+
+    @Test
+    public void scanOfEmptyColumnHasHeightZero() {
+        ChunkSnapshot src = new SyntheticChunk()
+                .set(0, 0, 0, STONE)
+                .build();
+
+        int scan = this.scanner.scan(src, 15, 15);
+
+        assertEquals(0, ColumnScanner.getHeight(scan));
+        assertEquals(0, ColumnScanner.getColorIndex(scan));
+    }
+
+    @Test
+    public void scanNorthHeightFindsTopOfEdge() {
+        ChunkSnapshot src = new SyntheticChunk()
+                .layer(0, 3, STONE)
+                .northEdge(30, STONE)
+                .build();
+
+        for (int x = 0; x < 16; x++) {
+            assertEquals(30, this.scanner.scanNorthHeight(src, x));
+        }
+    }
+}